@@ -0,0 +1,21 @@
+package com.bussiness.inventory.alert;
+
+import org.springframework.stereotype.Component;
+
+import com.bussiness.inventory.event.ChangeFeed;
+
+// alerts reach /api/products/changes subscribers as "alert" events
+@Component
+public class ChangeFeedAlertSink implements StockAlertSink {
+
+    private final ChangeFeed changeFeed;
+
+    public ChangeFeedAlertSink(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @Override
+    public void publish(StockAlert alert) {
+        changeFeed.publish("alert", alert.type().name(), alert.productId(), null, alert);
+    }
+}
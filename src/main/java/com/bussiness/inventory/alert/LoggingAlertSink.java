@@ -0,0 +1,17 @@
+package com.bussiness.inventory.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LoggingAlertSink implements StockAlertSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingAlertSink.class);
+
+    @Override
+    public void publish(StockAlert alert) {
+        logger.info("{}: product {} ({}) has {} in stock, reorder threshold {}", alert.type(), alert.productId(),
+                alert.productName(), alert.quantity(), alert.threshold());
+    }
+}
@@ -0,0 +1,9 @@
+package com.bussiness.inventory.alert;
+
+// threshold is the effective one: the product's own, else its category's, else the configured default
+public record StockAlert(Type type, Long productId, String productName, Integer quantity, int threshold,
+                         Long categoryId, Long version, long timestamp) {
+
+    // RESTOCKED is only ever sent to sinks; the open alerts are LOW_STOCK or OUT_OF_STOCK
+    public enum Type { LOW_STOCK, OUT_OF_STOCK, RESTOCKED }
+}
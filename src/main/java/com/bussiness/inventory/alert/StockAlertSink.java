@@ -0,0 +1,11 @@
+package com.bussiness.inventory.alert;
+
+/**
+ * Receives every stock alert transition. Each {@code StockAlertSink} bean is called in turn while
+ * {@link com.bussiness.inventory.service.StockAlertService} holds its lock, so per product the calls arrive in
+ * order; implementations must hand slow work off rather than block.
+ */
+public interface StockAlertSink {
+
+    void publish(StockAlert alert);
+}
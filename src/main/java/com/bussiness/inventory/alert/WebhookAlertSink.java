@@ -0,0 +1,57 @@
+package com.bussiness.inventory.alert;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// POSTs each alert as JSON to inventory.alerts.webhook-url, without waiting for the answer; does nothing when it is unset
+@Component
+public class WebhookAlertSink implements StockAlertSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookAlertSink.class);
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final HttpClient client;
+
+    public WebhookAlertSink(ObjectMapper objectMapper, @Value("${inventory.alerts.webhook-url:}") String url) {
+        this.objectMapper = objectMapper;
+        this.url = url.isBlank() ? null : URI.create(url);
+        this.client = this.url == null ? null : HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    }
+
+    @Override
+    public void publish(StockAlert alert) {
+        if (url == null) {
+            return;
+        }
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(alert);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("cannot render stock alert for product " + alert.productId(), e);
+        }
+        HttpRequest request = HttpRequest.newBuilder(url).timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null) {
+                logger.warn("stock alert webhook failed for product {}: {}", alert.productId(), error.getMessage());
+            } else if (response.statusCode() >= 300) {
+                logger.warn("stock alert webhook answered {} for product {}", response.statusCode(), alert.productId());
+            }
+        });
+    }
+}
@@ -1,15 +1,27 @@
 package com.bussiness.inventory.aspects;
 
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,25 +30,45 @@ import org.slf4j.LoggerFactory;
 public class LoggingAspect {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // share of calls whose arguments are logged; formatting every argument list is too costly at high rates
+    @Value("${inventory.metrics.argument-log-sample-rate:0.01}")
+    private double argumentLogSampleRate;
+
+    private final Map<Method, Timer> serviceTimers = new ConcurrentHashMap<>();
+    private final ThreadLocal<Throwable> lastCounted = new ThreadLocal<>();
+
     @Before("execution(* com.bussiness.inventory.controller..*(..))")
     public void logBeforeController(JoinPoint joinPoint){
-        logger.info("controller calling: {} with arguments: {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        if(sampled()){
+            logger.info("controller calling: {} with arguments: {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        }
     }
     
     @Before("execution(* com.bussiness.inventory.service..*(..))")
     public void logBeforeService(JoinPoint joinPoint){
-        logger.info("service calling: {} with arguments: {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        if(sampled()){
+            logger.info("service calling: {} with arguments: {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        }
     }
 
     @Around("execution(* com.bussiness.inventory.service..*(..))")
     public Object logExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable{
-       long startTime = System.currentTimeMillis();
-
-       Object result = joinPoint.proceed();
-       long endTime = System.currentTimeMillis();
-       long executionTime = endTime - startTime;
-       logger.info("{} method executed in {} ms", joinPoint.getSignature().getName(), executionTime);
-       return result;
+       Timer timer = serviceTimers.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+               method -> Timer.builder("inventory.service.calls")
+                       .description("service method latency and throughput")
+                       .tag("class", method.getDeclaringClass().getSimpleName())
+                       .tag("method", method.getName())
+                       .register(meterRegistry));
+       long startTime = System.nanoTime();
+       try{
+           return joinPoint.proceed();
+       }
+       finally{
+           timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+       }
     }
 
     @AfterThrowing(pointcut="execution(* com.bussiness.inventory..*(..))", throwing="exception")
@@ -44,9 +76,24 @@ public class LoggingAspect {
         logger.error("[Error] Exception in {}:{}", joinpoint.getSignature().getName(), exception.getMessage());
     }
 
-    @AfterReturning(pointcut = "execution(* com.bussiness.inventory.service..*(..))", returning="result")
-    public void logAfterReturning(JoinPoint joinoint, Object result){
-        logger.info("{} completed successfully", joinoint.getSignature().getName());
+    // counted once, where it leaves the service layer's innermost proxied call: the same exception passing
+    // through outer services, repositories or controllers is not counted again
+    @AfterThrowing(pointcut="execution(* com.bussiness.inventory.service..*(..))", throwing="exception")
+    public void countException(JoinPoint joinpoint, Throwable exception){
+        if(lastCounted.get() == exception){
+            return;
+        }
+        lastCounted.set(exception);
+        Counter.builder("inventory.errors")
+                .description("exceptions thrown out of the service layer, by type and the method that threw")
+                .tag("exception", exception.getClass().getSimpleName())
+                .tag("method", joinpoint.getSignature().getDeclaringType().getSimpleName() + "." + joinpoint.getSignature().getName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private boolean sampled(){
+        return argumentLogSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < argumentLogSampleRate;
     }
 
 }
@@ -0,0 +1,24 @@
+package com.bussiness.inventory.aspects;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import com.bussiness.inventory.datasource.ReplicaRouting;
+
+@Aspect
+@Component
+public class ReplicaReadAspect {
+
+    @Around("@annotation(com.bussiness.inventory.annotation.ReplicaRead)")
+    public Object replicaRead(ProceedingJoinPoint joinPoint) throws Throwable{
+        boolean outer = ReplicaRouting.enter();
+        try{
+            return joinPoint.proceed();
+        }
+        finally{
+            ReplicaRouting.exit(outer);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.bussiness.inventory.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bussiness.inventory.dto.CategorySummary;
+import com.bussiness.inventory.event.CategoryChangeEvent;
+import com.bussiness.inventory.model.Category;
+import com.bussiness.inventory.repository.CategoryRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * All categories held in memory, indexed by id and by name. The snapshot is loaded with one query on first
+ * use and dropped whenever a {@link CategoryChangeEvent} commits. Lookups that miss it go to the database,
+ * so categories written by another instance are still found; renames and deletes made there show up once
+ * the snapshot expires after {@code inventory.category.cache-ttl-ms}, and moving the categories tag then
+ * lets clients see them too. Hits and misses are counted in {@code inventory.category.cache}.
+ */
+@Component
+public class CategoryCache {
+
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResourceVersions resourceVersions;
+    private final TransactionTemplate newTransaction;
+    private final Counter hits;
+    private final Counter misses;
+    private final long ttlNanos;
+
+    private volatile Snapshot snapshot;
+    // bumped on every invalidation, so a load that overlapped a write never installs what it read
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final ReentrantLock createLock = new ReentrantLock();
+
+    public CategoryCache(CategoryRepository categoryRepository, ApplicationEventPublisher eventPublisher,
+                         ResourceVersions resourceVersions, PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry, @Value("${inventory.category.cache-ttl-ms:60000}") long ttlMs) {
+        this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.resourceVersions = resourceVersions;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hits = Counter.builder("inventory.category.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("inventory.category.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    // loadedAt is System.nanoTime()
+    private record Snapshot(List<CategorySummary> all, Map<Long, CategorySummary> byId, Map<String, CategorySummary> byName,
+                            long loadedAt) {
+    }
+
+    // ordered by id, as GET /api/categories returns them
+    public List<CategorySummary> all() {
+        Snapshot current = unexpired();
+        if (current != null) {
+            hits.increment();
+            return current.all();
+        }
+        misses.increment();
+        return snapshot().all();
+    }
+
+    public Optional<CategorySummary> findById(Long id) {
+        CategorySummary cached = snapshot().byId().get(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        return categoryRepository.findById(id).map(this::loadedAfterSnapshot);
+    }
+
+    public Optional<CategorySummary> findByName(String name) {
+        CategorySummary cached = snapshot().byName().get(name);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        return categoryRepository.findByName(name).map(this::loadedAfterSnapshot);
+    }
+
+    /**
+     * Returns the category with this name, creating it if needed. Creation is serialized here and runs in its
+     * own transaction; if another instance inserted the same name first, the unique constraint rejects ours
+     * and the existing row is returned.
+     */
+    public CategorySummary getOrCreate(String name, String description) {
+        Optional<CategorySummary> existing = findByName(name);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        createLock.lock();
+        try {
+            existing = findByName(name);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+            try {
+                Category saved = newTransaction.execute(status -> {
+                    Category category = new Category();
+                    category.setName(name);
+                    category.setDescription(description);
+                    Category inserted = categoryRepository.saveAndFlush(category);
+                    eventPublisher.publishEvent(CategoryChangeEvent.created(inserted));
+                    return inserted;
+                });
+                return summary(saved);
+            } catch (DataIntegrityViolationException e) {
+                return categoryRepository.findByName(name).map(CategoryCache::summary).orElseThrow(() -> e);
+            }
+        } finally {
+            createLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCategoryChange(CategoryChangeEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot unexpired() {
+        Snapshot current = snapshot;
+        return current != null && System.nanoTime() - current.loadedAt() < ttlNanos ? current : null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = unexpired();
+        if (current != null) {
+            return current;
+        }
+        loadLock.lock();
+        try {
+            current = unexpired();
+            if (current != null) {
+                return current;
+            }
+            Snapshot expired = snapshot;
+            long loadingGeneration = generation.get();
+            List<CategorySummary> all = List.copyOf(categoryRepository.findSummaries());
+            Map<Long, CategorySummary> byId = new HashMap<>();
+            Map<String, CategorySummary> byName = new HashMap<>();
+            for (CategorySummary category : all) {
+                byId.put(category.getId(), category);
+                byName.put(category.getName(), category);
+            }
+            current = new Snapshot(all, byId, byName, System.nanoTime());
+            if (generation.get() == loadingGeneration) {
+                snapshot = current;
+                if (expired != null && !expired.all().equals(all)) {
+                    // changed by another instance, so no event moved the tag here
+                    resourceVersions.markCategoriesChanged();
+                }
+            }
+            return current;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // the row exists but the snapshot predates it: reload on the next read
+    private CategorySummary loadedAfterSnapshot(Category category) {
+        invalidate();
+        return summary(category);
+    }
+
+    private static CategorySummary summary(Category category) {
+        return new CategorySummary(category.getId(), category.getName(), category.getDescription(), category.getReorderThreshold());
+    }
+}
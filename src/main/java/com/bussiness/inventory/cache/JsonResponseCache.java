@@ -0,0 +1,94 @@
+package com.bussiness.inventory.cache;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.bussiness.inventory.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Response bodies already encoded as UTF-8 JSON by the application's {@link ObjectMapper}. Controllers return
+ * the bytes as a {@code byte[]} body, which Spring copies to the servlet output stream without going through
+ * Jackson again. Products are keyed by id and reused while their {@code @Version} matches. Other responses are
+ * keyed by the {@link ResourceVersions} tag they are served under, so a change counter moving is all it takes
+ * to stop using them. The cache is bounded by {@code inventory.json-cache.max-size} in encoded bytes.
+ * Lookups are counted in {@code inventory.json.cache}.
+ */
+@Component
+public class JsonResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, EncodedProduct> products;
+    private final Cache<String, byte[]> tagged;
+    private final Counter hits;
+    private final Counter misses;
+
+    public JsonResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${inventory.json-cache.max-size:64MB}") DataSize maxSize) {
+        this.objectMapper = objectMapper;
+        // products take most of the budget; tagged responses are few but can be large lists
+        this.products = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes() / 4 * 3)
+                .weigher((Long id, EncodedProduct encoded) -> encoded.json().length + 32)
+                .build();
+        this.tagged = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes() / 4)
+                .weigher((String tag, byte[] json) -> json.length + tag.length() * 2)
+                .build();
+        this.hits = Counter.builder("inventory.json.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("inventory.json.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    private record EncodedProduct(long version, byte[] json) {
+    }
+
+    // products without a version are encoded every time
+    public byte[] product(Product product) {
+        Long version = product.getVersion();
+        if (version == null) {
+            misses.increment();
+            return encode(product);
+        }
+        EncodedProduct cached = products.getIfPresent(product.getId());
+        if (cached != null && cached.version() == version) {
+            hits.increment();
+            return cached.json();
+        }
+        misses.increment();
+        byte[] json = encode(product);
+        // a slower reader holding an older version must not replace a newer encoding
+        products.asMap().merge(product.getId(), new EncodedProduct(version, json),
+                (current, offered) -> current.version() > offered.version() ? current : offered);
+        return json;
+    }
+
+    // the body is only built on a miss; the tag must already name the version of what it returns
+    public byte[] tagged(String tag, Supplier<?> body) {
+        byte[] cached = tagged.getIfPresent(tag);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        byte[] json = encode(body.get());
+        tagged.put(tag, json);
+        return json;
+    }
+
+    private byte[] encode(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("cannot encode " + body.getClass().getSimpleName(), e);
+        }
+    }
+}
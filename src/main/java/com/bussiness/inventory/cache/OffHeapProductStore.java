@@ -0,0 +1,318 @@
+package com.bussiness.inventory.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.bussiness.inventory.event.ProductSnapshot;
+
+/**
+ * Product records kept in direct memory, outside the heap. The collector never traces them, so millions of
+ * entries cost it nothing. Each record takes a fixed-size slot in an open-addressing hash table keyed by
+ * product id; the slot size bounds the name, and a product whose name does not fit is simply not stored.
+ * The table is split into segments, each with its own buffer and lock. A full segment evicts its entries
+ * round-robin in slot order. Reads copy the record back into a {@link ProductSnapshot}.
+ */
+public final class OffHeapProductStore {
+
+    // slot layout; FLAGS marks the slot as used and which nullable fields are null
+    private static final int ID = 0;
+    private static final int VERSION = 8;
+    private static final int PRICE = 16;
+    private static final int CATEGORY_ID = 24;
+    private static final int QUANTITY = 32;
+    private static final int REORDER_THRESHOLD = 36;
+    private static final int FLAGS = 40;
+    private static final int NAME_LENGTH = 41;
+    private static final int NAME = 43;
+
+    private static final int USED = 1;
+    private static final int NULL_VERSION = 1 << 1;
+    private static final int NULL_PRICE = 1 << 2;
+    private static final int NULL_CATEGORY = 1 << 3;
+    private static final int NULL_QUANTITY = 1 << 4;
+    private static final int NULL_THRESHOLD = 1 << 5;
+    private static final int NULL_NAME = 1 << 6;
+
+    // segments stay well under the 2 GB a single ByteBuffer can address
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+    private static final double MAX_LOAD = 0.75;
+
+    private final Segment[] segments;
+    private final int slotBytes;
+    private final int maxNameBytes;
+
+    public OffHeapProductStore(long capacity, int slotBytes) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (slotBytes < NAME + 16) {
+            throw new IllegalArgumentException("slots need at least " + (NAME + 16) + " bytes");
+        }
+        this.slotBytes = slotBytes;
+        this.maxNameBytes = Math.min(slotBytes - NAME, 0xFFFF);
+        long tableBytes = (long) Math.ceil(capacity / MAX_LOAD) * slotBytes;
+        // a power of two, at least 16 so writers to different ids rarely share a lock
+        int needed = (int) Math.min(1 << 20, Math.max(16, tableBytes / MAX_SEGMENT_BYTES + 1));
+        int count = Integer.highestOneBit(needed * 2 - 1);
+        long perSegment = (capacity + count - 1) / count;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment((int) perSegment, (int) Math.ceil(perSegment / MAX_LOAD));
+        }
+    }
+
+    public ProductSnapshot get(long id) {
+        long hash = mix(id);
+        return segmentFor(hash).get(id, hash);
+    }
+
+    /**
+     * Stores the record unless one with a higher version is already there. Returns false when the name is
+     * too long for a slot; any older record for the id is removed then, so it cannot be served stale.
+     */
+    public boolean put(ProductSnapshot product) {
+        byte[] name = product.name() == null ? null : product.name().getBytes(StandardCharsets.UTF_8);
+        long hash = mix(product.id());
+        Segment segment = segmentFor(hash);
+        if (name != null && name.length > maxNameBytes) {
+            segment.remove(product.id(), hash);
+            return false;
+        }
+        segment.put(product, name, hash);
+        return true;
+    }
+
+    public void remove(long id) {
+        long hash = mix(id);
+        segmentFor(hash).remove(id, hash);
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public long capacity() {
+        long capacity = 0;
+        for (Segment segment : segments) {
+            capacity += segment.maxEntries;
+        }
+        return capacity;
+    }
+
+    // direct memory held by the tables
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += (long) segment.slots * slotBytes;
+        }
+        return bytes;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 32) & (segments.length - 1)];
+    }
+
+    // murmur3 finalizer; sequence-allocated ids are dense, so their low bits alone would cluster
+    private static long mix(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private final class Segment {
+
+        private final ByteBuffer table;
+        private final int slots;
+        private final int maxEntries;
+        private final ReentrantLock lock = new ReentrantLock();
+        private int size;
+        private int hand;
+
+        Segment(int maxEntries, int slots) {
+            this.maxEntries = maxEntries;
+            this.slots = slots;
+            this.table = ByteBuffer.allocateDirect(Math.multiplyExact(slots, slotBytes));
+        }
+
+        ProductSnapshot get(long id, long hash) {
+            lock.lock();
+            try {
+                int slot = find(id, hash);
+                return slot < 0 ? null : read(slot * slotBytes);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(ProductSnapshot product, byte[] name, long hash) {
+            lock.lock();
+            try {
+                int slot = find(product.id(), hash);
+                if (slot >= 0) {
+                    int offset = slot * slotBytes;
+                    boolean older = (table.get(offset + FLAGS) & NULL_VERSION) == 0 && product.version() != null
+                            && table.getLong(offset + VERSION) > product.version();
+                    if (!older) {
+                        write(offset, product, name);
+                    }
+                    return;
+                }
+                if (size >= maxEntries) {
+                    evictOne();
+                }
+                slot = home(hash);
+                while (used(slot)) {
+                    slot = next(slot);
+                }
+                write(slot * slotBytes, product, name);
+                size++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(long id, long hash) {
+            lock.lock();
+            try {
+                int slot = find(id, hash);
+                if (slot >= 0) {
+                    delete(slot);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                for (int slot = 0; slot < slots; slot++) {
+                    table.put(slot * slotBytes + FLAGS, (byte) 0);
+                }
+                size = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int find(long id, long hash) {
+            int slot = home(hash);
+            while (used(slot)) {
+                if (table.getLong(slot * slotBytes + ID) == id) {
+                    return slot;
+                }
+                slot = next(slot);
+            }
+            return -1;
+        }
+
+        private void evictOne() {
+            while (!used(hand)) {
+                hand = next(hand);
+            }
+            delete(hand);
+        }
+
+        // backward-shift deletion: later entries of the probe run move up, so lookups never need tombstones
+        private void delete(int slot) {
+            int gap = slot;
+            int current = slot;
+            while (true) {
+                current = next(current);
+                if (!used(current)) {
+                    break;
+                }
+                int home = home(mix(table.getLong(current * slotBytes + ID)));
+                boolean staysPut = gap <= current ? gap < home && home <= current : gap < home || home <= current;
+                if (!staysPut) {
+                    table.put(gap * slotBytes, table, current * slotBytes, slotBytes);
+                    gap = current;
+                }
+            }
+            table.put(gap * slotBytes + FLAGS, (byte) 0);
+            size--;
+        }
+
+        private ProductSnapshot read(int offset) {
+            int flags = table.get(offset + FLAGS);
+            String name = null;
+            if ((flags & NULL_NAME) == 0) {
+                byte[] bytes = new byte[table.getShort(offset + NAME_LENGTH) & 0xFFFF];
+                table.get(offset + NAME, bytes);
+                name = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return new ProductSnapshot(
+                    table.getLong(offset + ID),
+                    name,
+                    (flags & NULL_PRICE) != 0 ? null : table.getDouble(offset + PRICE),
+                    (flags & NULL_QUANTITY) != 0 ? null : table.getInt(offset + QUANTITY),
+                    (flags & NULL_CATEGORY) != 0 ? null : table.getLong(offset + CATEGORY_ID),
+                    (flags & NULL_VERSION) != 0 ? null : table.getLong(offset + VERSION),
+                    (flags & NULL_THRESHOLD) != 0 ? null : table.getInt(offset + REORDER_THRESHOLD));
+        }
+
+        private void write(int offset, ProductSnapshot product, byte[] name) {
+            int flags = USED;
+            table.putLong(offset + ID, product.id());
+            if (product.version() == null) {
+                flags |= NULL_VERSION;
+            } else {
+                table.putLong(offset + VERSION, product.version());
+            }
+            if (product.price() == null) {
+                flags |= NULL_PRICE;
+            } else {
+                table.putDouble(offset + PRICE, product.price());
+            }
+            if (product.categoryId() == null) {
+                flags |= NULL_CATEGORY;
+            } else {
+                table.putLong(offset + CATEGORY_ID, product.categoryId());
+            }
+            if (product.quantity() == null) {
+                flags |= NULL_QUANTITY;
+            } else {
+                table.putInt(offset + QUANTITY, product.quantity());
+            }
+            if (product.reorderThreshold() == null) {
+                flags |= NULL_THRESHOLD;
+            } else {
+                table.putInt(offset + REORDER_THRESHOLD, product.reorderThreshold());
+            }
+            if (name == null) {
+                flags |= NULL_NAME;
+            } else {
+                table.putShort(offset + NAME_LENGTH, (short) name.length);
+                table.put(offset + NAME, name);
+            }
+            table.put(offset + FLAGS, (byte) flags);
+        }
+
+        private boolean used(int slot) {
+            return (table.get(slot * slotBytes + FLAGS) & USED) != 0;
+        }
+
+        private int home(long hash) {
+            return (int) ((hash & 0x7FFFFFFFL) % slots);
+        }
+
+        private int next(int slot) {
+            return slot + 1 == slots ? 0 : slot + 1;
+        }
+    }
+}
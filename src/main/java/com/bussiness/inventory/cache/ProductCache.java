@@ -0,0 +1,140 @@
+package com.bussiness.inventory.cache;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bussiness.inventory.event.ProductChangeEvent;
+import com.bussiness.inventory.event.ProductSnapshot;
+import com.bussiness.inventory.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Single products by id, in two tiers in front of {@code ProductRepository.findById}. L1 is a size-bounded
+ * Caffeine cache on the heap; its W-TinyLFU policy keeps frequently read products over recently read ones.
+ * L2 is an {@link OffHeapProductStore}, large enough for the whole working set without adding to GC work.
+ * It is off when {@code inventory.products.cache.l2-entries} is 0. A read tries L1, then L2 (promoting the
+ * entry to L1), then the database, and fills both tiers.
+ * Every committed {@link ProductChangeEvent} writes its after-state through to both tiers, or evicts the
+ * product when it was deleted or its version is unknown. Tiers only take a version at least as new as the
+ * one they hold. Loads that overlap an eviction are dropped, so a racing read cannot bring old rows back.
+ * Lookups are counted in {@code inventory.product.cache} by result (l1_hit, l2_hit, miss).
+ */
+@Component
+public class ProductCache {
+
+    private final ProductRepository productRepository;
+    private final Cache<Long, ProductSnapshot> l1;
+    private final OffHeapProductStore l2;
+    // bumped on every eviction; a load or promotion that saw it move discards what it stored
+    private final AtomicLong evictions = new AtomicLong();
+    private final Counter l1Hits;
+    private final Counter l2Hits;
+    private final Counter misses;
+
+    public ProductCache(ProductRepository productRepository, MeterRegistry meterRegistry,
+                        @Value("${inventory.products.cache.l1-size:10000}") long l1Size,
+                        @Value("${inventory.products.cache.l2-entries:0}") long l2Entries,
+                        @Value("${inventory.products.cache.l2-slot-bytes:128}") int l2SlotBytes) {
+        this.productRepository = productRepository;
+        this.l1 = Caffeine.newBuilder().maximumSize(l1Size).build();
+        this.l2 = l2Entries > 0 ? new OffHeapProductStore(l2Entries, l2SlotBytes) : null;
+        this.l1Hits = Counter.builder("inventory.product.cache").tag("result", "l1_hit").register(meterRegistry);
+        this.l2Hits = Counter.builder("inventory.product.cache").tag("result", "l2_hit").register(meterRegistry);
+        this.misses = Counter.builder("inventory.product.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("inventory.product.cache.size", l1, Cache::estimatedSize).tag("tier", "l1").register(meterRegistry);
+        if (l2 != null) {
+            Gauge.builder("inventory.product.cache.size", l2, OffHeapProductStore::size).tag("tier", "l2").register(meterRegistry);
+            Gauge.builder("inventory.product.cache.memory", l2, OffHeapProductStore::memoryBytes).tag("tier", "l2")
+                    .baseUnit("bytes").register(meterRegistry);
+        }
+    }
+
+    public Optional<ProductSnapshot> get(Long id) {
+        ProductSnapshot cached = l1.getIfPresent(id);
+        if (cached != null) {
+            l1Hits.increment();
+            return Optional.of(cached);
+        }
+        long generation = evictions.get();
+        if (l2 != null) {
+            cached = l2.get(id);
+            if (cached != null) {
+                l2Hits.increment();
+                l1.asMap().merge(id, cached, ProductCache::newer);
+                discardIfEvicted(id, generation);
+                return Optional.of(cached);
+            }
+        }
+        misses.increment();
+        Optional<ProductSnapshot> loaded = productRepository.findById(id).map(ProductSnapshot::of);
+        loaded.ifPresent(product -> {
+            store(product);
+            discardIfEvicted(id, generation);
+        });
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChange(ProductChangeEvent event) {
+        ProductSnapshot after = event.after();
+        if (after == null) {
+            evict(event.productId());
+        } else if (after.version() != null) {
+            store(after);
+        } else if (event.type() != ProductChangeEvent.Type.CREATED) {
+            // rows from the bulk importer carry no version either, but being new they cannot be cached yet
+            evict(event.productId());
+        }
+    }
+
+    public void evict(Long id) {
+        evictions.incrementAndGet();
+        l1.invalidate(id);
+        if (l2 != null) {
+            l2.remove(id);
+        }
+    }
+
+    public void invalidateAll() {
+        evictions.incrementAndGet();
+        l1.invalidateAll();
+        if (l2 != null) {
+            l2.clear();
+        }
+    }
+
+    private void store(ProductSnapshot product) {
+        l1.asMap().merge(product.id(), product, ProductCache::newer);
+        if (l2 != null) {
+            l2.put(product);
+        }
+    }
+
+    private void discardIfEvicted(Long id, long generation) {
+        if (evictions.get() != generation) {
+            l1.invalidate(id);
+            if (l2 != null) {
+                l2.remove(id);
+            }
+        }
+    }
+
+    private static ProductSnapshot newer(ProductSnapshot cached, ProductSnapshot offered) {
+        if (cached.version() != null && (offered.version() == null || cached.version() > offered.version())) {
+            return cached;
+        }
+        return offered;
+    }
+}
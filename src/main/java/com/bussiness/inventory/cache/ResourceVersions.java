@@ -0,0 +1,121 @@
+package com.bussiness.inventory.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bussiness.inventory.event.CategoryChangeEvent;
+import com.bussiness.inventory.event.ProductChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Validators for conditional GETs, kept in memory so a 304 costs neither a query nor serialization.
+ * Each table has a change counter and the time of its last committed change; collection and aggregate
+ * endpoints derive their ETag from those. Single products use their {@code @Version}, remembered here for
+ * recently read or written ids. Counters start from the boot time, so tags from an earlier run never match.
+ * The change listeners run last, after the caches, views and aggregates have applied the same event, so a
+ * request that sees a new tag never reads the data it replaces.
+ */
+@Component
+public class ResourceVersions {
+
+    // stands in for a deleted product so a read racing the delete cannot bring its old version back
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final long epoch = System.currentTimeMillis();
+    private final TableVersion products = new TableVersion(epoch);
+    private final TableVersion categories = new TableVersion(epoch);
+    private final Cache<Long, Long> productVersions;
+
+    public ResourceVersions(@Value("${inventory.etag.product-versions:100000}") long productVersionsSize) {
+        this.productVersions = Caffeine.newBuilder().maximumSize(productVersionsSize).build();
+    }
+
+    private static final class TableVersion {
+        private final AtomicLong changes = new AtomicLong();
+        private volatile long lastModified;
+
+        TableVersion(long lastModified) {
+            this.lastModified = lastModified;
+        }
+
+        void changed() {
+            lastModified = System.currentTimeMillis();
+            changes.incrementAndGet();
+        }
+    }
+
+    public String productsTag() {
+        return "products-" + epoch + "-" + products.changes.get();
+    }
+
+    public long productsLastModified() {
+        return products.lastModified;
+    }
+
+    public String categoriesTag() {
+        return "categories-" + epoch + "-" + categories.changes.get();
+    }
+
+    public long categoriesLastModified() {
+        return categories.lastModified;
+    }
+
+    // category listings that also report product counts
+    public String categoriesWithProductsTag() {
+        return categoriesTag() + "-" + products.changes.get();
+    }
+
+    public long categoriesWithProductsLastModified() {
+        return Math.max(categories.lastModified, products.lastModified);
+    }
+
+    // null when this product's version is not known without a query
+    public String productTag(Long productId) {
+        Long version = productVersions.getIfPresent(productId);
+        return version == null || version == DELETED ? null : productTag(productId, version);
+    }
+
+    public String productTag(Long productId, Long version) {
+        return "product-" + productId + "-" + version;
+    }
+
+    // versions only move forward, so a slow read cannot overwrite what a later write recorded
+    public void rememberProductVersion(Long productId, Long version) {
+        if (version != null) {
+            productVersions.asMap().merge(productId, version, Math::max);
+        }
+    }
+
+    // for changes that bypass ProductChangeEvent, such as the aggregates repairing drift
+    public void markProductsChanged() {
+        products.changed();
+    }
+
+    // for category changes made by another instance, found when CategoryCache reloads
+    public void markCategoriesChanged() {
+        categories.changed();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onProductChange(ProductChangeEvent event) {
+        products.changed();
+        if (event.after() == null) {
+            productVersions.put(event.productId(), DELETED);
+        } else {
+            rememberProductVersion(event.productId(), event.after().version());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCategoryChange(CategoryChangeEvent event) {
+        categories.changed();
+    }
+}
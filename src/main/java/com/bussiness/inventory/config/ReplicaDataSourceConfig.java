@@ -0,0 +1,41 @@
+package com.bussiness.inventory.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.bussiness.inventory.datasource.ReplicaRoutingDataSource;
+import com.bussiness.inventory.datasource.ReplicaSet;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PreDestroy;
+
+// with inventory.datasource.replicas.urls set, the application's DataSource routes replica-eligible reads
+// (see ReplicaRoutingDataSource); otherwise Spring Boot's single pool is left as it is
+@Configuration
+@ConditionalOnExpression(ReplicaSet.ENABLED)
+public class ReplicaDataSourceConfig {
+
+    private HikariDataSource primary;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, ReplicaSet replicaSet){
+        primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicaSet));
+    }
+
+    @PreDestroy
+    void close(){
+        if(primary != null){
+            primary.close();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.bussiness.inventory.config;
 
+import com.bussiness.inventory.security.AuthenticationCache;
 import com.bussiness.inventory.security.JwtAuthenticationFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -25,16 +27,27 @@ public class SecurityConfig {
 //    @Autowired
 //    private JwtAuthenticationFilter jwtAuthenticationFilter;
 @Bean
-public JwtAuthenticationFilter jwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService) {
-    return new JwtAuthenticationFilter(jwtUtil, userService);
+public JwtAuthenticationFilter jwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService, AuthenticationCache authenticationCache) {
+    return new JwtAuthenticationFilter(jwtUtil, userService, authenticationCache);
 }
 
+    // the filter only belongs in the security chain; without this boot also registers it as a plain
+    // servlet filter and every request gets authenticated twice
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
 
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception{
         http.csrf(csrf -> csrf.disable()).authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").authenticated()
                 .requestMatchers("/api/products/**").authenticated()
                 .requestMatchers("/api/categories/**").authenticated())
                 .sessionManagement(session -> session
@@ -0,0 +1,38 @@
+package com.bussiness.inventory.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+// spring.threads.virtual.enabled switches Tomcat's request threads, the task executor behind async MVC
+// (the NDJSON export) and @Scheduled work to virtual threads. Spring Boot ignores the flag below Java 21,
+// so report which mode is actually in effect
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Autowired
+    private Environment environment;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreadingMode(){
+        String poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", "10");
+        if(Threading.VIRTUAL.isActive(environment)){
+            logger.info("handling requests on virtual threads; concurrent database work is bounded by the {} pool connections", poolSize);
+        }
+        else if(environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)){
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; using platform threads",
+                    System.getProperty("java.specification.version"));
+        }
+        else{
+            logger.info("handling requests on platform threads (up to {}), database pool of {} connections",
+                    environment.getProperty("server.tomcat.threads.max", "200"), poolSize);
+        }
+    }
+}
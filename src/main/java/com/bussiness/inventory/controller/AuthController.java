@@ -1,10 +1,13 @@
 package com.bussiness.inventory.controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.bussiness.inventory.dto.LoginRequest;
-import com.bussiness.inventory.dto.LoginResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -45,17 +48,30 @@ public class AuthController {
 
     }
 
+    // the password check runs on the hashing pool, so the request thread is released until it completes
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request){
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request){
         try{
-            LoginResponse response = userService.login(request);
-            return ResponseEntity.ok(response);
-        }catch(IllegalArgumentException e){
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return userService.login(request).<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(failure -> loginFailure(failure instanceof CompletionException ? failure.getCause() : failure));
         }
         catch(RuntimeException e){
+            return CompletableFuture.completedFuture(loginFailure(e));
+        }
+    }
+
+    private ResponseEntity<?> loginFailure(Throwable e){
+        if(e instanceof IllegalArgumentException){
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        if(e instanceof RejectedExecutionException){
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("too many logins in progress, retry shortly");
+        }
+        if(e instanceof RuntimeException){
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
         }
+        throw new CompletionException(e);
     }
     
 }
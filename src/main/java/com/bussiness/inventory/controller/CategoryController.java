@@ -1,6 +1,9 @@
 package com.bussiness.inventory.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,9 +12,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.bussiness.inventory.cache.JsonResponseCache;
+import com.bussiness.inventory.cache.ResourceVersions;
+import com.bussiness.inventory.dto.CategorySummary;
 import com.bussiness.inventory.model.Category;
-import java.util.List;
 import java.util.Optional;
 
 import com.bussiness.inventory.service.CategoryService;
@@ -23,17 +31,38 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private JsonResponseCache jsonResponseCache;
+
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories(){
-        List<Category> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> getAllCategories(@RequestParam(defaultValue = "false") boolean includeProductCount,
+                                                   WebRequest request){
+        // validators are read before the data; 304 is answered from the change counters alone
+        String etag = includeProductCount ? resourceVersions.categoriesWithProductsTag() : resourceVersions.categoriesTag();
+        long lastModified = includeProductCount ? resourceVersions.categoriesWithProductsLastModified() : resourceVersions.categoriesLastModified();
+        if(request.checkNotModified(etag, lastModified)){
+            return null;
+        }
+        // the list is encoded once per tag. CategoryCache drops its snapshot before ResourceVersions moves the
+        // tag, so a body built for a tag is never older than the tag
+        byte[] categories = jsonResponseCache.tagged(etag, () -> categoryService.getAllCategories(includeProductCount));
+        return ResponseEntity.ok().eTag(etag).lastModified(lastModified).contentType(MediaType.APPLICATION_JSON).body(categories);
     }
 
     @GetMapping("/id")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id){
-         Optional<Category> category = categoryService.getCategoryById(id);
+    public ResponseEntity<byte[]> getCategoryById(@PathVariable Long id, WebRequest request){
+         String etag = resourceVersions.categoriesTag();
+         long lastModified = resourceVersions.categoriesLastModified();
+         if(request.checkNotModified(etag, lastModified)){
+            return null;
+         }
+         Optional<CategorySummary> category = categoryService.getCategoryById(id);
          if(category.isPresent()){
-         return ResponseEntity.ok(category.get());
+         byte[] body = jsonResponseCache.tagged(etag + "/" + id, category::get);
+         return ResponseEntity.ok().eTag(etag).lastModified(lastModified).contentType(MediaType.APPLICATION_JSON).body(body);
          }
          else{
             return ResponseEntity.notFound().build();
@@ -57,6 +86,9 @@ public class CategoryController {
             Category updatedCategory = categoryService.updateCategory(id, catgory);
             return ResponseEntity.ok(updatedCategory);
         }
+        catch(OptimisticLockingFailureException e){
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("category " + id + " was modified concurrently, retry the update");
+        }
         catch(RuntimeException e){
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -68,6 +100,9 @@ public class CategoryController {
             categoryService.deleteCategory(id);
             return ResponseEntity.ok("category deleted successsfully");
            }
+           catch(OptimisticLockingFailureException e){
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("category " + id + " was modified concurrently, retry the delete");
+           }
            catch(RuntimeException e){
             return ResponseEntity.badRequest().body(e.getMessage());
            }
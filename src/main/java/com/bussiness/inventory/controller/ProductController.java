@@ -1,16 +1,54 @@
 package com.bussiness.inventory.controller;
 
+import com.bussiness.inventory.alert.StockAlert;
+import com.bussiness.inventory.cache.JsonResponseCache;
+import com.bussiness.inventory.cache.ResourceVersions;
+import com.bussiness.inventory.dto.BulkImportResponse;
+import com.bussiness.inventory.dto.InventoryAggregates;
+import com.bussiness.inventory.dto.ProductBatchRequest;
+import com.bussiness.inventory.dto.ProductBatchResponse;
+import com.bussiness.inventory.dto.ProductPage;
+import com.bussiness.inventory.dto.ProductSearchResponse;
+import com.bussiness.inventory.dto.ProductSummary;
+import com.bussiness.inventory.dto.ProductSummaryPage;
+import com.bussiness.inventory.dto.SnapshotInfo;
+import com.bussiness.inventory.dto.StockAdjustmentRequest;
+import com.bussiness.inventory.dto.StockLevel;
+import com.bussiness.inventory.dto.StockUpdateRequest;
+import com.bussiness.inventory.event.ChangeFeed;
 import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.report.InventoryValuationService;
+import com.bussiness.inventory.service.InventoryAggregateService;
+import com.bussiness.inventory.service.ProductImportService;
 import com.bussiness.inventory.service.ProductService;
+import com.bussiness.inventory.service.StockAlertService;
+import com.bussiness.inventory.service.StockUpdateService;
+import com.bussiness.inventory.snapshot.InventorySnapshotService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/api/products")
@@ -19,6 +57,41 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private InventoryAggregateService inventoryAggregateService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private JsonResponseCache jsonResponseCache;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private StockUpdateService stockUpdateService;
+
+    @Autowired
+    private InventorySnapshotService inventorySnapshotService;
+
+    @Autowired
+    private InventoryValuationService inventoryValuationService;
+
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    // tomcat's sendfile request attributes
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     @Value("${spring.profiles.active}")
     private String activeProfile;
 
@@ -27,65 +100,208 @@ public class ProductController {
         return "Active profile: " + activeProfile;
     }
     @GetMapping()
-    public ResponseEntity<List<Product>> getAllProducts(){
-        List<Product> products = productService.getAllProducts();
-        if(!products.isEmpty()){
-          return ResponseEntity.ok(products);
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size){
+        try{
+          ProductPage page = productService.getProductPage(cursor, size);
+          if(!page.getItems().isEmpty()){
+            return ResponseEntity.ok(page);
+          }
+          return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.noContent().build();
+        catch(IllegalArgumentException e){
+          return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProducts(){
+      StreamingResponseBody body = out -> productService.streamProducts(out);
+      return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
+    // a client holding the current version gets 304 straight from memory; otherwise the tag comes from the
+    // loaded row, and spring still answers 304 before writing the body when it matches. the body is the
+    // product's JSON as encoded for its version
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProduct(@PathVariable Long id){
+    public ResponseEntity<?> getProduct(@PathVariable Long id, WebRequest request){
+         long lastModified = resourceVersions.productsLastModified();
+         String knownTag = resourceVersions.productTag(id);
+         if(knownTag != null && request.checkNotModified(knownTag, lastModified)){
+            return null;
+         }
          Optional<Product> product = productService.getProduct(id);
           if(product.isPresent()){
-            return ResponseEntity.ok(product.get());
+            Product found = product.get();
+            resourceVersions.rememberProductVersion(id, found.getVersion());
+            return ResponseEntity.ok().eTag(resourceVersions.productTag(id, found.getVersion()))
+                    .lastModified(lastModified).contentType(MediaType.APPLICATION_JSON).body(jsonResponseCache.product(found));
           }
           else{
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
           }
     }
 
+    // for callers that would otherwise GET one product per line item
+    @PostMapping("/batch-get")
+    public ResponseEntity<?> getProductsById(@RequestBody ProductBatchRequest request){
+      try{
+        ProductBatchResponse batch = productService.getProducts(request.getIds());
+        batch.getProducts().forEach(product -> resourceVersions.rememberProductVersion(product.getId(), product.getVersion()));
+        return ResponseEntity.ok(batch);
+      }
+      catch(IllegalArgumentException e){
+        return ResponseEntity.badRequest().body(e.getMessage());
+      }
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProduct(@RequestParam String name){
-        List<Product> products = productService.searchProduct(name);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> searchProduct(@RequestParam String name, @RequestParam(required = false) Integer page, @RequestParam(required = false) Integer size){
+        try{
+          ProductSearchResponse response = productService.searchProduct(name, page, size);
+          return ResponseEntity.ok(response);
+        }
+        catch(IllegalArgumentException e){
+          return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
+    // range endpoints keep returning a plain list; page/size are optional and the full match count is in X-Total-Count
     @GetMapping("/price-range")
-    public ResponseEntity<List<Product>> getProductsByPriceRange(@RequestParam Double minPrice, @RequestParam Double maxPrice){
-      List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice);
-      return ResponseEntity.ok(products);
+    public ResponseEntity<?> getProductsByPriceRange(@RequestParam Double minPrice, @RequestParam Double maxPrice,
+                                                     @RequestParam(required = false) Integer page, @RequestParam(required = false) Integer size){
+      try{
+        ProductSummaryPage products = productService.getProductsByPriceRange(minPrice, maxPrice, page, size);
+        return withTotal(products);
+      }
+      catch(IllegalArgumentException e){
+        return ResponseEntity.badRequest().body(e.getMessage());
+      }
     }
 
     @GetMapping("/low-stock")
-    public ResponseEntity<List<Product>> getLowStockProduct(@RequestParam Integer threshold){
-      List<Product> products = productService.getLowStockProduct(threshold);
-      return ResponseEntity.ok(products);
+    public ResponseEntity<?> getLowStockProduct(@RequestParam Integer threshold,
+                                                @RequestParam(required = false) Integer page, @RequestParam(required = false) Integer size){
+      try{
+        ProductSummaryPage products = productService.getLowStockProduct(threshold, page, size);
+        return withTotal(products);
+      }
+      catch(IllegalArgumentException e){
+        return ResponseEntity.badRequest().body(e.getMessage());
+      }
     }
     
     @GetMapping("/out-of-stock")
-    public ResponseEntity<List<Product>> getOutOfStockProducts(){
-      List<Product> products = productService.getOutOfStockProducts();
-      return ResponseEntity.ok(products);
+    public ResponseEntity<?> getOutOfStockProducts(@RequestParam(required = false) Integer page, @RequestParam(required = false) Integer size){
+      try{
+        ProductSummaryPage products = productService.getOutOfStockProducts(page, size);
+        return withTotal(products);
+      }
+      catch(IllegalArgumentException e){
+        return ResponseEntity.badRequest().body(e.getMessage());
+      }
     }
 
     @GetMapping("/premium-stock")
-    public ResponseEntity<List<Product>> getPremiumStock(@RequestParam Double price){
-      List<Product> products = productService.getPremiumStock(price);
-      return ResponseEntity.ok(products);
+    public ResponseEntity<?> getPremiumStock(@RequestParam Double price, @RequestParam(required = false) Integer page,
+                                             @RequestParam(required = false) Integer size, @RequestParam(required = false) Integer top){
+      try{
+        ProductSummaryPage products = productService.getPremiumStock(price, page, size, top);
+        return withTotal(products);
+      }
+      catch(IllegalArgumentException e){
+        return ResponseEntity.badRequest().body(e.getMessage());
+      }
     }
 
     @GetMapping("/count-stock")
-    public ResponseEntity<Long> getCount(){
-      Long count = productService.getCount();
-      return ResponseEntity.ok(count);
+    public ResponseEntity<Long> getCount(WebRequest request){
+      return productsVersioned(request, () -> productService.getCount());
     }
 
     @GetMapping("/getTotalInventory")
-    public ResponseEntity<Double> getTotalInventory(){
-      Double total = productService.totalInventory();
-      return ResponseEntity.ok(total);
+    public ResponseEntity<Double> getTotalInventory(WebRequest request){
+      return productsVersioned(request, () -> productService.totalInventory());
+    }
+
+    @GetMapping("/aggregates")
+    public ResponseEntity<InventoryAggregates> getAggregates(WebRequest request){
+      return productsVersioned(request, () -> inventoryAggregateService.getAggregates());
+    }
+
+    // open low-stock and out-of-stock alerts, kept current as stock changes
+    @GetMapping("/alerts")
+    public ResponseEntity<List<StockAlert>> getStockAlerts(){
+      return ResponseEntity.ok(stockAlertService.getAlerts());
+    }
+
+    // server-sent events of committed changes. a reconnecting EventSource sends Last-Event-ID, which wins over since
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> getChanges(@RequestParam(required = false) Long since,
+                                        @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId){
+      try{
+        return ResponseEntity.ok(changeFeed.subscribe(lastEventId != null ? lastEventId : since));
+      }
+      catch(RejectedExecutionException e){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").body(e.getMessage());
+      }
+    }
+
+    // the latest columnar catalog snapshot (format on InventorySnapshot). tomcat sends the file itself with
+    // sendfile when the connector supports it; otherwise it is copied to the response with transferTo.
+    // 503 until the first export after startup has finished
+    @GetMapping("/snapshot")
+    public void getSnapshot(HttpServletRequest request, HttpServletResponse response) throws IOException{
+      InventorySnapshotService.SnapshotFile snapshot = inventorySnapshotService.current();
+      if(snapshot == null){
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+        return;
+      }
+      SnapshotInfo info = snapshot.info();
+      if(new ServletWebRequest(request, response).checkNotModified("snapshot-" + info.getCreatedAt() + "-" + info.getChangeSequence())){
+        return;
+      }
+      response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+      response.setContentLengthLong(info.getBytes());
+      response.setHeader("X-Snapshot-Rows", Long.toString(info.getRows()));
+      response.setHeader("X-Snapshot-Change-Sequence", Long.toString(info.getChangeSequence()));
+      if(Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))){
+        request.setAttribute(SENDFILE_FILENAME, snapshot.path().toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START, 0L);
+        request.setAttribute(SENDFILE_END, info.getBytes());
+        return;
+      }
+      inventorySnapshotService.transferTo(snapshot, Channels.newChannel(response.getOutputStream()));
+    }
+
+    @PostMapping("/snapshot")
+    public ResponseEntity<?> exportSnapshot(){
+      try{
+        return ResponseEntity.ok(inventorySnapshotService.export());
+      }
+      catch(IOException e){
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("snapshot export failed: " + e.getMessage());
+      }
+    }
+
+    // value, units, price spread and low-stock counts per category and price band. the whole catalog is
+    // aggregated before the first byte goes out, on the async thread rather than a request thread
+    @GetMapping(value = "/valuation", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> getValuationReport(){
+      StreamingResponseBody body = out -> inventoryValuationService.writeCsv(out);
+      return ResponseEntity.ok().contentType(MediaType.parseMediaType("text/csv"))
+              .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"inventory-valuation.csv\"").body(body);
+    }
+
+    // for responses computed from the whole products table. the tag is read before the data, so a response
+    // never carries a newer tag than its content
+    private <T> ResponseEntity<T> productsVersioned(WebRequest request, Supplier<T> body){
+      String etag = resourceVersions.productsTag();
+      long lastModified = resourceVersions.productsLastModified();
+      if(request.checkNotModified(etag, lastModified)){
+        return null;
+      }
+      return ResponseEntity.ok().eTag(etag).lastModified(lastModified).body(body.get());
     }
 
     @PostMapping
@@ -93,6 +309,19 @@ public class ProductController {
           productService.createProduct(product);
     }
 
+    @PostMapping(value = "/bulk", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> bulkImport(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body){
+      ProductImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+              ? ProductImportService.Format.NDJSON : ProductImportService.Format.CSV;
+      try{
+        BulkImportResponse response = productImportService.importProducts(body, format);
+        return ResponseEntity.ok(response);
+      }
+      catch(IllegalArgumentException | IOException e){
+        return ResponseEntity.badRequest().body(e.getMessage());
+      }
+    }
+
     @PostMapping(params = "categoryId")
     public ResponseEntity<?> createProductWithCategory(@RequestBody Product product, @RequestParam Long categoryId){
            try{
@@ -119,18 +348,71 @@ public class ProductController {
         try{
        Product updatedproduct = productService.updateProduct(id, product);
        return ResponseEntity.ok(updatedproduct);
+        }
+        // a concurrent write, such as a stock adjustment, bumped the version after this update read the row
+        catch(OptimisticLockingFailureException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("product " + id + " was modified concurrently, retry the update");
         }
         catch(RuntimeException e){
         return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    @PostMapping("/{id}/stock/adjust")
+    public ResponseEntity<?> adjustStock(@PathVariable Long id, @RequestBody StockAdjustmentRequest request){
+      try{
+        StockLevel level = productService.adjustStock(id, request.getDelta());
+        return ResponseEntity.ok(level);
+      }
+      catch(IllegalArgumentException e){
+        return ResponseEntity.badRequest().body(e.getMessage());
+      }
+      catch(IllegalStateException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+      }
+      // anything else, such as a lock timeout, is a server error rather than a missing product
+      catch(NoSuchElementException e){
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+      }
+    }
+
+    // cycle-count sized corrections: per-item results, so one bad item does not fail the request
+    @PostMapping("/stock/bulk")
+    public ResponseEntity<?> updateStock(@RequestBody List<StockUpdateRequest> requests){
+      try{
+        return ResponseEntity.ok(stockUpdateService.update(requests));
+      }
+      catch(IllegalArgumentException e){
+        return ResponseEntity.badRequest().body(e.getMessage());
+      }
+    }
+
+    @PostMapping("/stock/adjust")
+    public ResponseEntity<?> adjustStock(@RequestBody List<StockAdjustmentRequest> requests){
+      try{
+        List<StockLevel> levels = productService.adjustStock(requests);
+        return ResponseEntity.ok(levels);
+      }
+      catch(IllegalArgumentException e){
+        return ResponseEntity.badRequest().body(e.getMessage());
+      }
+      catch(IllegalStateException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+      }
+      catch(NoSuchElementException e){
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+      }
+    }
+
     @PatchMapping("/{productId}/category/{categoryId}")
     public ResponseEntity<?> assignCategoryToProduct(@PathVariable Long productId, @PathVariable Long categoryId){
       try{
         Product product = productService.assignCategoryToProduct(productId, categoryId);
         return ResponseEntity.ok(product);
       }
+      catch(OptimisticLockingFailureException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("product " + productId + " was modified concurrently, retry the update");
+      }
       catch(RuntimeException e){
         return ResponseEntity.badRequest().body(e.getMessage());
       }
@@ -141,14 +423,21 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.ok("deleted Successfully");
       }
+      catch(OptimisticLockingFailureException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("product " + id + " was modified concurrently, retry the delete");
+      }
       catch(RuntimeException e){
         return ResponseEntity.badRequest().body(e.getMessage());
       }
     }
 
+    private ResponseEntity<List<ProductSummary>> withTotal(ProductSummaryPage page){
+      return ResponseEntity.ok().header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotal())).body(page.getItems());
+    }
+
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId){
-      List<Product> products = productService.getProductByCategoryId(categoryId);
+    public ResponseEntity<List<ProductSummary>> getProductsByCategory(@PathVariable Long categoryId){
+      List<ProductSummary> products = productService.getProductByCategoryId(categoryId);
       return ResponseEntity.ok(products);
     }
 }
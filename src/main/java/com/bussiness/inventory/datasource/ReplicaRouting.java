@@ -0,0 +1,42 @@
+package com.bussiness.inventory.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the current thread as allowed to read from a replica. Reads outside such a scope always use the
+ * primary: caches, aggregates and snapshots load through the same repositories and must not pick up a
+ * lagging copy. Service methods opt in with {@code @ReplicaRead}; other code can use {@link #replicaReads}.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA_READS = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean replicaReadsAllowed() {
+        return REPLICA_READS.get() != null;
+    }
+
+    public static <T> T replicaReads(Supplier<T> work) {
+        boolean outer = enter();
+        try {
+            return work.get();
+        } finally {
+            exit(outer);
+        }
+    }
+
+    // returns whether a scope was already open, to be handed back to exit
+    public static boolean enter() {
+        boolean outer = replicaReadsAllowed();
+        REPLICA_READS.set(Boolean.TRUE);
+        return outer;
+    }
+
+    public static void exit(boolean outer) {
+        if (!outer) {
+            REPLICA_READS.remove();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bussiness.inventory.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends reads made inside a {@link ReplicaRouting} scope to a replica chosen by {@link ReplicaSet}, unless
+ * they belong to a read-write transaction, the user committed a write too recently, or every replica lags;
+ * all other connections go to the primary. Committing a read-write transaction marks its user as a recent
+ * writer. The route is decided when a connection is opened, so this has to sit behind a
+ * {@code LazyConnectionDataSourceProxy}: JPA opens its connection before the transaction is marked read-only,
+ * the proxy defers that until the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaSet replicaSet;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSet replicaSet) {
+        this.replicaSet = replicaSet;
+        Map<Object, Object> targets = new HashMap<>();
+        for (ReplicaSet.Replica replica : replicaSet.replicas()) {
+            targets.put(replica.name, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // null stands for the primary
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        String user = currentUser();
+        if (inTransaction && !readOnly) {
+            if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        replicaSet.wrote(user);
+                    }
+                });
+            }
+            return null;
+        }
+        if (!ReplicaRouting.replicaReadsAllowed()) {
+            return null;
+        }
+        ReplicaSet.Replica replica = replicaSet.choose(user);
+        return replica != null ? replica.name : null;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
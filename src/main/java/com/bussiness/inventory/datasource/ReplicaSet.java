@@ -0,0 +1,219 @@
+package com.bussiness.inventory.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The read replicas behind {@link ReplicaRoutingDataSource}: a connection pool for each, their replication
+ * lag as last measured with {@code lag-query}, and the users who recently committed a write. A replica is
+ * only chosen while its measured lag is within {@code max-lag-ms} and was measured within the last two check
+ * intervals; each replica is checked on its own thread, so a slow check or other scheduled work cannot leave
+ * an old reading in place. After committing a write a user reads from
+ * the primary for {@code max-lag-ms} plus one check interval, the most a chosen replica can be behind, so
+ * they see their own writes. Recent writers are only known to the instance that committed the write: when a
+ * user's next read is served by another instance it can still go to a lagging replica.
+ */
+@Component
+@ConditionalOnExpression(ReplicaSet.ENABLED)
+public class ReplicaSet {
+
+    public static final String ENABLED = "!'${inventory.datasource.replicas.urls:}'.isBlank()";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaSet.class);
+    private static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    public enum Selection { ROUND_ROBIN, LEAST_CONNECTIONS }
+
+    static final class Replica {
+        final String name;
+        final HikariDataSource dataSource;
+        volatile long lagMs = UNKNOWN_LAG;
+        // System.nanoTime() of the measurement in lagMs
+        volatile long checkedAt;
+
+        Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Selection selection;
+    private final long maxLagMs;
+    private final long staleAfterNanos;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    // users whose writes a replica may not have yet; entries expire once every usable replica has them
+    private final Cache<String, Boolean> recentWriters;
+    private final Counter replicaReads;
+    private final Counter stickyReads;
+    private final Counter laggingReads;
+    private final ScheduledExecutorService lagChecks;
+
+    public ReplicaSet(MeterRegistry meterRegistry,
+                      @Value("${inventory.datasource.replicas.urls}") List<String> urls,
+                      @Value("${inventory.datasource.replicas.username:${spring.datasource.username:}}") String username,
+                      @Value("${inventory.datasource.replicas.password:${spring.datasource.password:}}") String password,
+                      @Value("${inventory.datasource.replicas.pool-size:10}") int poolSize,
+                      @Value("${inventory.datasource.replicas.selection:round-robin}") String selection,
+                      @Value("${inventory.datasource.replicas.max-lag-ms:1000}") long maxLagMs,
+                      @Value("${inventory.datasource.replicas.lag-check-interval-ms:1000}") long lagCheckIntervalMs,
+                      @Value("${inventory.datasource.replicas.lag-query}") String lagQuery) {
+        this.selection = Selection.valueOf(selection.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        this.maxLagMs = maxLagMs;
+        this.staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(2 * lagCheckIntervalMs);
+        this.lagQuery = lagQuery;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(maxLagMs + lagCheckIntervalMs))
+                .maximumSize(100_000)
+                .build();
+        List<String> replicaUrls = urls.stream().map(String::trim).filter(url -> !url.isEmpty()).toList();
+        if (replicaUrls.isEmpty()) {
+            throw new IllegalArgumentException("inventory.datasource.replicas.urls is set but lists no replica url");
+        }
+        for (String url : replicaUrls) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url);
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            config.setReadOnly(true);
+            // a replica that is down at startup is skipped until a lag check reaches it
+            config.setInitializationFailTimeout(-1);
+            config.setConnectionTimeout(2_000);
+            Replica replica = new Replica(config.getPoolName(), new HikariDataSource(config));
+            replicas.add(replica);
+            Gauge.builder("inventory.datasource.replica.lag", replica,
+                            r -> lagOf(r) == UNKNOWN_LAG ? Double.NaN : lagOf(r))
+                    .description("replication lag measured by the last check, in milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+        this.replicaReads = reads(meterRegistry, "replica");
+        this.stickyReads = reads(meterRegistry, "primary_after_write");
+        this.laggingReads = reads(meterRegistry, "primary_replicas_lagging");
+        checkLag();
+        AtomicInteger threads = new AtomicInteger();
+        this.lagChecks = Executors.newScheduledThreadPool(replicas.size(), task -> {
+            Thread thread = new Thread(task, "replica-lag-check-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Replica replica : replicas) {
+            lagChecks.scheduleWithFixedDelay(() -> checkLag(replica), lagCheckIntervalMs, lagCheckIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Counter reads(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("inventory.datasource.replica.reads")
+                .description("connections opened for replica-eligible reads, by where they went")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    List<Replica> replicas() {
+        return replicas;
+    }
+
+    // a replica for a read by user (null when anonymous), or null when the read has to use the primary
+    Replica choose(String user) {
+        if (user != null && recentWriters.getIfPresent(user) != null) {
+            stickyReads.increment();
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        Replica chosen = null;
+        int fewestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (lagOf(replica) > maxLagMs) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                chosen = replica;
+                break;
+            }
+            int active = replica.dataSource.getHikariPoolMXBean().getActiveConnections();
+            if (active < fewestActive) {
+                chosen = replica;
+                fewestActive = active;
+            }
+        }
+        (chosen != null ? replicaReads : laggingReads).increment();
+        return chosen;
+    }
+
+    void wrote(String user) {
+        recentWriters.put(user, Boolean.TRUE);
+    }
+
+    // the last measured lag, or UNKNOWN_LAG once that measurement is too old to rely on
+    private long lagOf(Replica replica) {
+        return System.nanoTime() - replica.checkedAt > staleAfterNanos ? UNKNOWN_LAG : replica.lagMs;
+    }
+
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            checkLag(replica);
+        }
+    }
+
+    private void checkLag(Replica replica) {
+        long lag;
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(5);
+            try (ResultSet rs = statement.executeQuery(lagQuery)) {
+                lag = rs.next() ? Math.max(0, Math.round(rs.getDouble(1))) : UNKNOWN_LAG;
+            }
+        } catch (SQLException e) {
+            if (replica.lagMs != UNKNOWN_LAG) {
+                logger.warn("lag check on {} failed, reading from the primary instead: {}", replica.name, e.getMessage());
+            }
+            lag = UNKNOWN_LAG;
+        }
+        boolean wasUsable = lagOf(replica) <= maxLagMs;
+        replica.lagMs = lag;
+        replica.checkedAt = System.nanoTime();
+        if (wasUsable && lag > maxLagMs && lag != UNKNOWN_LAG) {
+            logger.warn("{} is {} ms behind, over the {} ms allowed; not reading from it", replica.name, lag, maxLagMs);
+        } else if (!wasUsable && lag <= maxLagMs) {
+            logger.info("{} is {} ms behind, reading from it", replica.name, lag);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        lagChecks.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.bussiness.inventory.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportResponse {
+    private long received;
+    private long imported;
+    private long failed;
+    private List<ImportRowError> errors;
+    private boolean errorsTruncated;
+    private long elapsedMs;
+    private double rowsPerSecond;
+}
@@ -0,0 +1,21 @@
+package com.bussiness.inventory.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// results are in request order, one per item
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkStockUpdateResponse {
+    private long received;
+    private long updated;
+    private long failed;
+    private List<StockUpdateResult> results;
+    private int transactions;
+    private long elapsedMs;
+    private double itemsPerSecond;
+}
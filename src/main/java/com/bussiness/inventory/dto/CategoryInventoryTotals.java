@@ -0,0 +1,19 @@
+package com.bussiness.inventory.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryInventoryTotals {
+    private Long categoryId;
+    private long productCount;
+    private long inStockCount;
+    private long outOfStockCount;
+    private long units;
+    private BigDecimal value;
+}
@@ -0,0 +1,25 @@
+package com.bussiness.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategorySummary {
+    private Long id;
+    private String name;
+    private String description;
+    private Integer reorderThreshold;
+
+    // only filled when the caller asks for it
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long productCount;
+
+    public CategorySummary(Long id, String name, String description, Integer reorderThreshold) {
+        this(id, name, description, reorderThreshold, null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.bussiness.inventory.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryAggregates {
+    private BigDecimal totalValue;
+    private long productCount;
+    private long inStockCount;
+    private long outOfStockCount;
+    private long units;
+    private List<CategoryInventoryTotals> categories;
+}
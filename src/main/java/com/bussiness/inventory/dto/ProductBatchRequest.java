@@ -0,0 +1,14 @@
+package com.bussiness.inventory.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchRequest {
+    private List<Long> ids;
+}
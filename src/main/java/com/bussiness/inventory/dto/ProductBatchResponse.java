@@ -0,0 +1,18 @@
+package com.bussiness.inventory.dto;
+
+import java.util.List;
+
+import com.bussiness.inventory.model.Product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// products in request order, each id once; missing lists the requested ids that have no product, also in request order
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchResponse {
+    private List<Product> products;
+    private List<Long> missing;
+}
@@ -0,0 +1,15 @@
+package com.bussiness.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportRow {
+    private String name;
+    private Double price;
+    private Integer quantity;
+    private String category;
+}
@@ -0,0 +1,16 @@
+package com.bussiness.inventory.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPage {
+    private List<ProductSummary> items;
+    private int size;
+    private String nextCursor;
+}
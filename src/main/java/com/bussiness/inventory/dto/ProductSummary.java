@@ -0,0 +1,18 @@
+package com.bussiness.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// list view of a product, selected directly by the repository so no entity or category proxy is loaded
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSummary {
+    private Long id;
+    private String name;
+    private Double price;
+    private Integer quantity;
+    private Long categoryId;
+    private String categoryName;
+}
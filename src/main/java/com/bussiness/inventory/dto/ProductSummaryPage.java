@@ -0,0 +1,17 @@
+package com.bussiness.inventory.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSummaryPage {
+    private int page;
+    private int size;
+    private long total;
+    private List<ProductSummary> items;
+}
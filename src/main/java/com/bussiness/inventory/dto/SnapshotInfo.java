@@ -0,0 +1,17 @@
+package com.bussiness.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// changeSequence is where a holder of this snapshot resumes /api/products/changes
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SnapshotInfo {
+    private long rows;
+    private long bytes;
+    private long createdAt;
+    private long changeSequence;
+    private long elapsedMs;
+}
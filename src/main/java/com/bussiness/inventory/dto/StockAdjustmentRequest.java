@@ -0,0 +1,13 @@
+package com.bussiness.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockAdjustmentRequest {
+    private Long productId;
+    private Integer delta;
+}
@@ -0,0 +1,15 @@
+package com.bussiness.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// exactly one of delta (relative change) and quantity (absolute count, as from a cycle count)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockUpdateRequest {
+    private Long productId;
+    private Integer delta;
+    private Integer quantity;
+}
@@ -0,0 +1,22 @@
+package com.bussiness.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// quantity is the stock after this item for UPDATED, and the unchanged stock for INSUFFICIENT_STOCK
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockUpdateResult {
+
+    public enum Status { UPDATED, NOT_FOUND, INSUFFICIENT_STOCK, INVALID, FAILED }
+
+    private Long productId;
+    private Status status;
+    private Integer quantity;
+    private String message;
+}
@@ -0,0 +1,23 @@
+package com.bussiness.inventory.event;
+
+import com.bussiness.inventory.model.Category;
+
+// published inside the writing transaction; listeners see it once that commits. name, description and reorderThreshold are null for DELETED
+public record CategoryChangeEvent(Type type, Long categoryId, String name, String description, Integer reorderThreshold) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static CategoryChangeEvent created(Category category) {
+        return new CategoryChangeEvent(Type.CREATED, category.getId(), category.getName(), category.getDescription(),
+                category.getReorderThreshold());
+    }
+
+    public static CategoryChangeEvent updated(Category category) {
+        return new CategoryChangeEvent(Type.UPDATED, category.getId(), category.getName(), category.getDescription(),
+                category.getReorderThreshold());
+    }
+
+    public static CategoryChangeEvent deleted(Long categoryId) {
+        return new CategoryChangeEvent(Type.DELETED, categoryId, null, null, null);
+    }
+}
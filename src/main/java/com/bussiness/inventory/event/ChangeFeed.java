@@ -0,0 +1,345 @@
+package com.bussiness.inventory.event;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.bussiness.inventory.dto.CategorySummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ordered feed of committed product and category changes for downstream consumers, streamed as server-sent
+ * events. Each change is rendered to JSON once, numbered, and kept in a {@link ChangeLog}; subscribers read
+ * from it at their own pace on a small sender pool, so nothing is buffered per consumer. A consumer that
+ * falls further behind than the log holds is sent a {@code reset} event and disconnected. The socket writes
+ * themselves run on a separate writer thread that the sender waits on for at most {@code send-timeout-ms}; a
+ * consumer that stops reading is disconnected then, and only its own writer stays blocked until the
+ * container gives up on the connection. With a journal configured, the log and its sequence numbers are
+ * restored on startup. The journal is written behind on its own thread, flushed once per batch, so committing
+ * transactions never wait on the file; a crash loses the records it had not written yet.
+ */
+@Component
+public class ChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+
+    // records sent to one subscriber before it goes to the back of the sender queue
+    private static final int SEND_BATCH = 256;
+
+    private final ObjectMapper objectMapper;
+    private final ChangeLog log;
+    private final ChangeJournal journal;
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final ExecutorService journalWriter;
+    private final AtomicBoolean journalScheduled = new AtomicBoolean();
+    // last sequence written to the journal; guarded by journalLock
+    private long journaled;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender;
+    // at most one write in flight per subscriber, so this holds no more threads than there are subscribers
+    private final ExecutorService writers;
+    private final int maxSubscribers;
+    private final Semaphore subscriberSlots;
+    private final long streamTimeoutMs;
+    private final long sendTimeoutMs;
+
+    public ChangeFeed(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                      @Value("${inventory.changes.buffer-size:10000}") int bufferSize,
+                      @Value("${inventory.changes.journal:}") String journalPath,
+                      @Value("${inventory.changes.sender-threads:2}") int senderThreads,
+                      @Value("${inventory.changes.max-subscribers:256}") int maxSubscribers,
+                      @Value("${inventory.changes.stream-timeout-ms:1800000}") long streamTimeoutMs,
+                      @Value("${inventory.changes.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.log = new ChangeLog(bufferSize);
+        this.maxSubscribers = maxSubscribers;
+        this.subscriberSlots = new Semaphore(maxSubscribers);
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        if (journalPath.isBlank()) {
+            this.journal = null;
+        } else {
+            this.journal = new ChangeJournal(Path.of(journalPath), objectMapper);
+            try {
+                journal.load(log);
+            } catch (IOException e) {
+                throw new UncheckedIOException("cannot open change journal " + journalPath, e);
+            }
+            logger.info("change feed resumed at sequence {} from {}", log.latest(), journalPath);
+        }
+        this.journaled = log.latest();
+        this.journalWriter = journal == null ? null : Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "change-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, task -> {
+            Thread thread = new Thread(task, "change-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger writerThreads = new AtomicInteger();
+        this.writers = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "change-feed-writer-" + writerThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("inventory.changes.subscribers", subscribers, List::size)
+                .description("open change feed streams")
+                .register(meterRegistry);
+    }
+
+    private record Change(long sequence, long timestamp, String entity, String type, Long id, Object before, Object after) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // last sequence sent; only the drain that holds scheduled touches it
+        private long position;
+
+        Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        publish("product", event.type().name(), event.productId(), event.before(), event.after());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChange(CategoryChangeEvent event) {
+        CategorySummary after = event.type() == CategoryChangeEvent.Type.DELETED ? null
+                : new CategorySummary(event.categoryId(), event.name(), event.description(), event.reorderThreshold());
+        publish("category", event.type().name(), event.categoryId(), null, after);
+    }
+
+    public long latestSequence() {
+        return log.latest();
+    }
+
+    // streams changes after the given sequence, or only new ones when it is null
+    public SseEmitter subscribe(Long after) {
+        if (!subscriberSlots.tryAcquire()) {
+            throw new RejectedExecutionException("change feed already has " + maxSubscribers + " subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, after != null ? after : log.latest());
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    // before the web server's graceful shutdown, which would otherwise wait for every open stream. Completing
+    // takes the emitter's write lock, so it goes through the writers rather than waiting on a stalled socket here
+    @EventListener(ContextClosedEvent.class)
+    void closeStreams() {
+        for (Subscriber subscriber : subscribers) {
+            remove(subscriber);
+            try {
+                writers.execute(subscriber.emitter::complete);
+            } catch (RejectedExecutionException e) {
+                // already shut down
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        writers.shutdown();
+        if (journal == null) {
+            return;
+        }
+        journalWriter.shutdown();
+        try {
+            journalWriter.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journalLock.lock();
+        try {
+            // whatever the journal thread had not picked up yet
+            writeJournal();
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("closing change journal failed: {}", e.getMessage());
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // also used for records that are not entity changes, such as stock alerts; before and after are rendered as JSON
+    public void publish(String entity, String type, Long id, Object before, Object after) {
+        long timestamp = System.currentTimeMillis();
+        log.append(entity, sequence -> render(new Change(sequence, timestamp, entity, type, id, before, after)));
+        scheduleJournal();
+        subscribers.forEach(this::schedule);
+    }
+
+    // like a subscriber's drain: at most one journal pass is queued or running
+    private void scheduleJournal() {
+        if (journal != null && journalScheduled.compareAndSet(false, true)) {
+            try {
+                journalWriter.execute(() -> {
+                    journalScheduled.set(false);
+                    journalLock.lock();
+                    try {
+                        writeJournal();
+                    } finally {
+                        journalLock.unlock();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // shutting down; shutdown() writes what is left
+                journalScheduled.set(false);
+            }
+        }
+    }
+
+    // everything appended since the last pass, under journalLock
+    private void writeJournal() {
+        while (journaled < log.latest()) {
+            ChangeLog.Batch batch = log.after(journaled, log.capacity());
+            List<ChangeLog.Entry> entries = batch.truncated() ? log.retained() : batch.entries();
+            if (entries.isEmpty()) {
+                return;
+            }
+            try {
+                if (batch.truncated()) {
+                    // fell further behind than the log holds: the file keeps what the log still has
+                    journal.compact(entries);
+                } else {
+                    journal.append(entries, log);
+                }
+            } catch (IOException e) {
+                // the in-memory feed carries on; only a restart would lose these records
+                logger.warn("writing changes {} to {} to the journal failed: {}", entries.get(0).sequence(),
+                        entries.get(entries.size() - 1).sequence(), e.getMessage());
+            }
+            journaled = entries.get(entries.size() - 1).sequence();
+        }
+    }
+
+    private String render(Change change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("cannot render change " + change.sequence(), e);
+        }
+    }
+
+    // at most one drain per subscriber is queued or running, so its records are sent in order
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        ChangeLog.Batch batch = log.after(subscriber.position, SEND_BATCH);
+        List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+        if (batch.truncated()) {
+            // what it missed is gone: it has to reload and resume from this sequence
+            events.add(SseEmitter.event().name("reset").data("{\"latest\":" + log.latest() + "}"));
+        } else {
+            for (ChangeLog.Entry entry : batch.entries()) {
+                events.add(SseEmitter.event().id(Long.toString(entry.sequence())).name(entry.name()).data(entry.json()));
+            }
+        }
+        CompletableFuture<Void> write;
+        try {
+            write = CompletableFuture.runAsync(() -> send(subscriber, events, batch.truncated()), writers);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            return;
+        }
+        try {
+            write.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the client stopped reading; its writer is released once the write fails or goes through
+            logger.info("change feed subscriber did not accept a write for {} ms, disconnecting it", sendTimeoutMs);
+            remove(subscriber);
+            write.whenComplete((ignored, error) -> subscriber.emitter.completeWithError(new IOException("change feed send timed out")));
+            return;
+        } catch (ExecutionException e) {
+            // the client went away or the stream timed out
+            remove(subscriber);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (batch.truncated()) {
+            remove(subscriber);
+            return;
+        }
+        if (!batch.entries().isEmpty()) {
+            subscriber.position = batch.entries().get(batch.entries().size() - 1).sequence();
+        }
+        subscriber.scheduled.set(false);
+        // picks up records appended while this drain was running, whose schedule call found it still set
+        if (subscriber.position < log.latest() && !subscriber.closed.get()) {
+            schedule(subscriber);
+        }
+    }
+
+    private static void send(Subscriber subscriber, List<SseEmitter.SseEventBuilder> events, boolean last) {
+        try {
+            for (SseEmitter.SseEventBuilder event : events) {
+                subscriber.emitter.send(event);
+            }
+            if (last) {
+                subscriber.emitter.complete();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscribers.remove(subscriber);
+            subscriberSlots.release();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.bussiness.inventory.event;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Local file holding the change feed as one JSON record per line, so recent records and the sequence
+ * counter survive a restart. Once it holds twice the change log's capacity it is rewritten with only the
+ * records the log still retains. Not thread safe; {@link ChangeFeed} writes it from its journal thread.
+ */
+class ChangeJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeJournal.class);
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private BufferedWriter writer;
+    private long lines;
+
+    ChangeJournal(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    // replays the file into the log and opens it for appending
+    void load(ChangeLog log) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines++;
+                    JsonNode record = parse(line);
+                    if (record == null || !record.hasNonNull("sequence") || !record.hasNonNull("entity")) {
+                        // typically the last line, cut short by a crash
+                        logger.warn("skipping unreadable change journal line {} in {}", lines, path);
+                        continue;
+                    }
+                    log.restore(new ChangeLog.Entry(record.get("sequence").asLong(), record.get("entity").asText(), line));
+                }
+            }
+        }
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    // one flush per call, however many entries
+    void append(List<ChangeLog.Entry> entries, ChangeLog log) throws IOException {
+        for (ChangeLog.Entry entry : entries) {
+            writer.write(entry.json());
+            writer.newLine();
+        }
+        writer.flush();
+        lines += entries.size();
+        if (lines >= 2L * log.capacity()) {
+            compact(log.retained());
+        }
+    }
+
+    void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private JsonNode parse(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    // replaces the file with what the log retains, also used when the writer fell behind further than the log holds
+    void compact(List<ChangeLog.Entry> retained) throws IOException {
+        Path rewritten = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(rewritten, StandardCharsets.UTF_8)) {
+            for (ChangeLog.Entry entry : retained) {
+                out.write(entry.json());
+                out.newLine();
+            }
+        }
+        writer.close();
+        Files.move(rewritten, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        lines = retained.size();
+    }
+}
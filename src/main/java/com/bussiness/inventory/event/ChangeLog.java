@@ -0,0 +1,115 @@
+package com.bussiness.inventory.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongFunction;
+
+/**
+ * The most recent change records, kept in a fixed ring so memory does not grow with slow or absent readers.
+ * Sequences are assigned here, start at 1 and have no gaps, so a reader that has seen sequence n can tell
+ * whether everything after n is still retained.
+ */
+public class ChangeLog {
+
+    private final Entry[] slots;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // last assigned sequence, 0 before the first record
+    private long latest;
+    private int size;
+
+    public ChangeLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("change log capacity must be positive");
+        }
+        this.slots = new Entry[capacity];
+    }
+
+    // name is the SSE event name, json the rendered record
+    public record Entry(long sequence, String name, String json) {
+    }
+
+    // truncated when records after the requested sequence were already overwritten, or it was never issued
+    public record Batch(List<Entry> entries, boolean truncated) {
+    }
+
+    // the record is rendered with its sequence while the write lock is held, so sequence order is append order
+    public Entry append(String name, LongFunction<String> render) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = new Entry(latest + 1, name, render.apply(latest + 1));
+            store(entry);
+            return entry;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // for records read back from the journal, oldest first
+    public void restore(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            if (entry.sequence() <= latest) {
+                return;
+            }
+            if (entry.sequence() != latest + 1) {
+                // whatever was before the gap can no longer be replayed in order
+                size = 0;
+            }
+            store(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Batch after(long sequence, int max) {
+        lock.readLock().lock();
+        try {
+            long oldest = latest - size + 1;
+            if (sequence < oldest - 1 || sequence > latest) {
+                return new Batch(List.of(), true);
+            }
+            int count = (int) Math.min(max, latest - sequence);
+            List<Entry> entries = new ArrayList<>(count);
+            for (long next = sequence + 1; entries.size() < count; next++) {
+                entries.add(slots[slot(next)]);
+            }
+            return new Batch(entries, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long latest() {
+        lock.readLock().lock();
+        try {
+            return latest;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // everything still retained, oldest first
+    public List<Entry> retained() {
+        lock.readLock().lock();
+        try {
+            return after(latest - size, size).entries();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    private void store(Entry entry) {
+        slots[slot(entry.sequence())] = entry;
+        latest = entry.sequence();
+        size = Math.min(size + 1, slots.length);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % slots.length);
+    }
+}
@@ -0,0 +1,23 @@
+package com.bussiness.inventory.event;
+
+// before is null for CREATED, after is null for DELETED
+public record ProductChangeEvent(Type type, Long productId, ProductSnapshot before, ProductSnapshot after) {
+
+    public enum Type { CREATED, UPDATED, DELETED, STOCK_CHANGED }
+
+    public static ProductChangeEvent created(ProductSnapshot after) {
+        return new ProductChangeEvent(Type.CREATED, after.id(), null, after);
+    }
+
+    public static ProductChangeEvent updated(ProductSnapshot before, ProductSnapshot after) {
+        return new ProductChangeEvent(Type.UPDATED, after.id(), before, after);
+    }
+
+    public static ProductChangeEvent deleted(ProductSnapshot before) {
+        return new ProductChangeEvent(Type.DELETED, before.id(), before, null);
+    }
+
+    public static ProductChangeEvent stockChanged(ProductSnapshot before, ProductSnapshot after) {
+        return new ProductChangeEvent(Type.STOCK_CHANGED, after.id(), before, after);
+    }
+}
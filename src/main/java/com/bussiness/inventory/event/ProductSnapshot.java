@@ -0,0 +1,19 @@
+package com.bussiness.inventory.event;
+
+import com.bussiness.inventory.model.Product;
+
+// version is the entity @Version after the write; null where unknown (e.g. rows scanned by the aggregates).
+// reorderThreshold is the product's own, without the category or default fallback
+public record ProductSnapshot(Long id, String name, Double price, Integer quantity, Long categoryId, Long version,
+                              Integer reorderThreshold) {
+
+    public static ProductSnapshot of(Product product) {
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        return new ProductSnapshot(product.getId(), product.getName(), product.getPrice(), product.getQuantity(), categoryId,
+                product.getVersion(), product.getReorderThreshold());
+    }
+
+    public ProductSnapshot withQuantity(Integer quantity) {
+        return new ProductSnapshot(id, name, price, quantity, categoryId, version, reorderThreshold);
+    }
+}
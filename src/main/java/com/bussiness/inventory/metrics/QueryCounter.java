@@ -0,0 +1,22 @@
+package com.bussiness.inventory.metrics;
+
+// SQL statements prepared on the current thread, counted by QueryCountingDataSource and read per request by QueryCountFilter
+public final class QueryCounter {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    private QueryCounter() {
+    }
+
+    static void increment() {
+        COUNT.get()[0]++;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int current() {
+        return COUNT.get()[0];
+    }
+}
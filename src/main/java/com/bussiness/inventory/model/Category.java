@@ -24,6 +24,13 @@ public class Category {
 
     private String description;
 
+    // for products without a threshold of their own
+    @Column(name = "reorder_threshold")
+    private Integer reorderThreshold;
+
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "category")
     @JsonManagedReference
     private List<Product> products;     
@@ -1,30 +1,58 @@
 package com.bussiness.inventory.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name="products")
+@Table(name="products", indexes = {
+        @Index(name = "idx_products_price", columnList = "price"),
+        @Index(name = "idx_products_quantity", columnList = "quantity"),
+        @Index(name = "idx_products_category_id", columnList = "category_id"),
+        @Index(name = "idx_products_unit_value", columnList = "unit_value, id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Product {
+    // ids come from blocks of this size (pooled-lo); the bulk importer allocates from the same sequence
+    public static final String ID_SEQUENCE = "products_seq";
+    public static final int ID_ALLOCATION_SIZE = 500;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     private String name;
     private Double price;
     private Integer quantity;
+
+    // stock alerts fire below this; when null the category's threshold applies, then inventory.alerts.default-threshold
+    @Column(name = "reorder_threshold")
+    private Integer reorderThreshold;
+
+    // price per unit in stock, stored so premium-stock is an index range scan; null when out of stock.
+    // every write path keeps it current: entity saves below, ProductRepository.adjustQuantity and
+    // ProductJdbcRepository.batchInsert
+    @Column(name = "unit_value")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Double unitValue;
     
     // public Product(){};
     // public Product(Long id, String name, Double price, Integer quantity){
@@ -46,9 +74,25 @@ public class Product {
     // public Integer getQuantity(){return this.quantity;}
     // public void setQuantity(Integer quantity){this.quantity = quantity;}
 
+    // bumped on every write, including ProductRepository.adjustQuantity; also the basis of the product ETag
+    @Version
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name="category_id")
     @JsonBackReference
     private Category category;
 
+    public static Double unitValueOf(Double price, Integer quantity){
+        if(price == null || quantity == null || quantity <= 0){
+            return null;
+        }
+        return price / quantity;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateUnitValue(){
+        unitValue = unitValueOf(price, quantity);
+    }
 }
@@ -0,0 +1,54 @@
+package com.bussiness.inventory.report;
+
+import java.math.BigDecimal;
+
+/**
+ * An exact sum of {@code price × quantity} terms, where each price counts as the decimal
+ * {@code BigDecimal.valueOf(price)} gives, as in {@code InventoryAggregateService}. Prices with at most four
+ * decimals, which is every real price, are added as a long count of ten-thousandths without allocating;
+ * anything else, and whatever overflows the long, goes to a {@link BigDecimal}. Not thread-safe.
+ */
+final class DecimalSum {
+
+    private static final int SCALE = 4;
+    private static final double UNIT = 10_000d;
+    // below this every four-decimal value is its own double, so a price that round-trips through UNIT is exact
+    private static final double EXACT_LIMIT = 1e9;
+
+    private long units;
+    private BigDecimal spill = BigDecimal.ZERO;
+
+    void add(double price, long quantity) {
+        long scaled = Math.round(price * UNIT);
+        if (Math.abs(price) < EXACT_LIMIT && scaled / UNIT == price) {
+            long high = Math.multiplyHigh(scaled, quantity);
+            long term = scaled * quantity;
+            if ((high == 0 && term >= 0) || (high == -1 && term < 0)) {
+                long sum = units + term;
+                if (((units ^ sum) & (term ^ sum)) < 0) {
+                    spill = spill.add(BigDecimal.valueOf(units, SCALE));
+                    units = term;
+                } else {
+                    units = sum;
+                }
+                return;
+            }
+        }
+        spill = spill.add(BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(quantity)));
+    }
+
+    void addAll(DecimalSum other) {
+        spill = spill.add(other.spill);
+        long sum = units + other.units;
+        if (((units ^ sum) & (other.units ^ sum)) < 0) {
+            spill = spill.add(BigDecimal.valueOf(units, SCALE)).add(BigDecimal.valueOf(other.units, SCALE));
+            units = 0;
+        } else {
+            units = sum;
+        }
+    }
+
+    BigDecimal value() {
+        return spill.add(BigDecimal.valueOf(units, SCALE));
+    }
+}
@@ -0,0 +1,366 @@
+package com.bussiness.inventory.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bussiness.inventory.cache.CategoryCache;
+import com.bussiness.inventory.dto.CategorySummary;
+import com.bussiness.inventory.repository.ProductJdbcRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Builds the valuation report: products, units, value, min/avg/max price and low-stock counts per category
+ * and per price band, written as CSV. Products are read once through a fetch-size cursor in a read-only
+ * transaction and copied into batches of primitive columns, one batch per partition of the category ids.
+ * Full batches are folded on a fork-join pool; a partition's batches are folded one at a time, so its
+ * accumulators need no sharing, and the partitions' price band totals are merged at the end. Money is summed
+ * exactly with {@link DecimalSum} and rounded to cents only when written. Memory is bounded by the batches in
+ * flight plus one accumulator per category, whatever the catalog size.
+ */
+@Service
+public class InventoryValuationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryValuationService.class);
+
+    static final int NO_QUANTITY = Integer.MIN_VALUE;
+    private static final int NO_THRESHOLD = Integer.MIN_VALUE;
+    // category ids start at 1
+    private static final long UNCATEGORIZED = 0;
+    private static final String HEADER =
+            "dimension,key,name,products,units,value,min_price,avg_price,max_price,low_stock,out_of_stock\n";
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final CategoryCache categoryCache;
+    private final ForkJoinPool pool;
+    private final int partitions;
+    private final int batchSize;
+    private final double[] priceBands;
+    private final int defaultThreshold;
+
+    public InventoryValuationService(ProductJdbcRepository productJdbcRepository,
+                                     PlatformTransactionManager transactionManager, CategoryCache categoryCache,
+                                     @Value("${inventory.report.parallelism:0}") int parallelism,
+                                     @Value("${inventory.report.batch-size:4096}") int batchSize,
+                                     @Value("${inventory.report.price-bands:10,50,100,500,1000}") double[] priceBands,
+                                     @Value("${inventory.alerts.default-threshold:10}") int defaultThreshold) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("inventory.report.batch-size must be positive");
+        }
+        this.productJdbcRepository = productJdbcRepository;
+        this.transactionManager = transactionManager;
+        this.categoryCache = categoryCache;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("valuation-report-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        // twice the threads, so a thread rarely waits for a partition another one is folding
+        this.partitions = threads * 2;
+        this.batchSize = batchSize;
+        this.priceBands = priceBands.clone();
+        Arrays.sort(this.priceBands);
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    // aggregates the whole catalog, then writes the report; nothing is written if the aggregation fails
+    public void writeCsv(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        Map<Long, CategorySummary> categories = new HashMap<>();
+        for (CategorySummary category : categoryCache.all()) {
+            categories.put(category.getId(), category);
+        }
+        Run run = new Run(categories);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> productJdbcRepository.streamForValuation(rs -> {
+            long categoryId = rs.getLong("category_id");
+            if (rs.wasNull()) {
+                categoryId = UNCATEGORIZED;
+            }
+            double price = rs.getDouble("price");
+            if (rs.wasNull()) {
+                price = Double.NaN;
+            }
+            int quantity = rs.getInt("quantity");
+            if (rs.wasNull()) {
+                quantity = NO_QUANTITY;
+            }
+            int threshold = rs.getInt("reorder_threshold");
+            if (rs.wasNull()) {
+                threshold = NO_THRESHOLD;
+            }
+            run.add(categoryId, price, quantity, threshold);
+        }));
+        run.finish();
+
+        TreeMap<Long, ValuationTotals> byCategory = new TreeMap<>();
+        ValuationTotals[] byBand = newBands();
+        for (Partition partition : run.partitions) {
+            partition.categories.forEach((id, category) -> byCategory.put(id, category.totals));
+            for (int band = 0; band < byBand.length; band++) {
+                byBand[band].addAll(partition.bands[band]);
+            }
+        }
+        for (Long id : categories.keySet()) {
+            byCategory.computeIfAbsent(id, empty -> new ValuationTotals());
+        }
+        ValuationTotals total = new ValuationTotals();
+        for (ValuationTotals band : byBand) {
+            total.addAll(band);
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        ValuationTotals uncategorized = byCategory.remove(UNCATEGORIZED);
+        for (Map.Entry<Long, ValuationTotals> entry : byCategory.entrySet()) {
+            CategorySummary category = categories.get(entry.getKey());
+            writeRow(writer, "category", entry.getKey().toString(), category != null ? category.getName() : null, entry.getValue());
+        }
+        if (uncategorized != null) {
+            writeRow(writer, "category", "", "uncategorized", uncategorized);
+        }
+        for (int band = 0; band < byBand.length; band++) {
+            writeRow(writer, "price_band", bandLabel(band), null, byBand[band]);
+        }
+        writeRow(writer, "total", "", null, total);
+        writer.flush();
+        logger.info("valuation report: {} products in {} categories in {} ms", total.products, byCategory.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private ValuationTotals[] newBands() {
+        // one band below each bound, one from the last bound up, and one for products without a price
+        ValuationTotals[] bands = new ValuationTotals[priceBands.length + 2];
+        for (int band = 0; band < bands.length; band++) {
+            bands[band] = new ValuationTotals();
+        }
+        return bands;
+    }
+
+    private int bandOf(double price) {
+        if (Double.isNaN(price)) {
+            return priceBands.length + 1;
+        }
+        int band = 0;
+        while (band < priceBands.length && price >= priceBands[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    private String bandLabel(int band) {
+        if (band == priceBands.length + 1) {
+            return "unpriced";
+        }
+        if (band == 0) {
+            return "<" + plain(priceBands[0]);
+        }
+        if (band == priceBands.length) {
+            return ">=" + plain(priceBands[band - 1]);
+        }
+        return plain(priceBands[band - 1]) + "-" + plain(priceBands[band]);
+    }
+
+    private static void writeRow(Writer writer, String dimension, String key, String name, ValuationTotals totals)
+            throws IOException {
+        boolean priced = totals.priced > 0;
+        BigDecimal averagePrice = totals.averagePrice();
+        writer.write(dimension + ',' + key + ',' + quoted(name) + ',' + totals.products + ',' + totals.units + ','
+                + totals.value.value().setScale(2, RoundingMode.HALF_EVEN).toPlainString() + ','
+                + (priced ? plain(totals.minPrice) : "") + ','
+                + (averagePrice != null ? averagePrice.toPlainString() : "") + ','
+                + (priced ? plain(totals.maxPrice) : "") + ','
+                + totals.lowStock + ',' + totals.outOfStock + '\n');
+    }
+
+    private static String plain(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static String quoted(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // the state of one report: filling batches belong to the reading thread, everything else to the folds
+    private final class Run {
+
+        final Partition[] partitions = new Partition[InventoryValuationService.this.partitions];
+        final Map<Long, CategorySummary> categories;
+        // caps the batches queued or being folded, so a slow pool holds back the cursor instead of buffering it
+        final Semaphore inFlight = new Semaphore(partitions.length);
+        final ConcurrentLinkedQueue<Batch> free = new ConcurrentLinkedQueue<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Run(Map<Long, CategorySummary> categories) {
+            this.categories = categories;
+            for (int i = 0; i < partitions.length; i++) {
+                partitions[i] = new Partition(newBands());
+            }
+        }
+
+        void add(long categoryId, double price, int quantity, int threshold) {
+            Partition partition = partitions[Math.floorMod(Long.hashCode(categoryId), partitions.length)];
+            Batch batch = partition.filling;
+            if (batch == null) {
+                batch = free.poll();
+                if (batch == null) {
+                    batch = new Batch(batchSize);
+                }
+                partition.filling = batch;
+            }
+            int i = batch.size++;
+            batch.categoryIds[i] = categoryId;
+            batch.prices[i] = price;
+            batch.quantities[i] = quantity;
+            batch.thresholds[i] = threshold;
+            if (batch.size == batchSize) {
+                dispatch(partition);
+            }
+        }
+
+        void finish() {
+            for (Partition partition : partitions) {
+                if (partition.filling != null) {
+                    dispatch(partition);
+                }
+            }
+            acquire(partitions.length);
+            Throwable cause = failure.get();
+            if (cause != null) {
+                throw new IllegalStateException("valuation report failed", cause);
+            }
+        }
+
+        private void dispatch(Partition partition) {
+            Batch batch = partition.filling;
+            partition.filling = null;
+            acquire(1);
+            try {
+                pool.execute(() -> {
+                    try {
+                        fold(partition, batch);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        batch.size = 0;
+                        free.offer(batch);
+                        inFlight.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+
+        private void acquire(int permits) {
+            try {
+                inFlight.acquire(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("valuation report interrupted", e);
+            }
+        }
+
+        private void fold(Partition partition, Batch batch) {
+            partition.lock.lock();
+            try {
+                long lastId = 0;
+                Category category = null;
+                for (int i = 0; i < batch.size; i++) {
+                    long id = batch.categoryIds[i];
+                    if (category == null || id != lastId) {
+                        category = partition.categories.computeIfAbsent(id, this::category);
+                        lastId = id;
+                    }
+                    int threshold = batch.thresholds[i] != NO_THRESHOLD ? batch.thresholds[i] : category.threshold;
+                    double price = batch.prices[i];
+                    int quantity = batch.quantities[i];
+                    category.totals.add(price, quantity, threshold);
+                    partition.bands[bandOf(price)].add(price, quantity, threshold);
+                }
+            } finally {
+                partition.lock.unlock();
+            }
+        }
+
+        private Category category(long id) {
+            CategorySummary summary = categories.get(id);
+            Integer threshold = summary != null ? summary.getReorderThreshold() : null;
+            return new Category(threshold != null ? threshold : defaultThreshold);
+        }
+    }
+
+    private static final class Partition {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Long, Category> categories = new HashMap<>();
+        final ValuationTotals[] bands;
+        Batch filling;
+
+        Partition(ValuationTotals[] bands) {
+            this.bands = bands;
+        }
+    }
+
+    private static final class Category {
+        final int threshold;
+        final ValuationTotals totals = new ValuationTotals();
+
+        Category(int threshold) {
+            this.threshold = threshold;
+        }
+    }
+
+    // columns of up to batchSize products; prices NaN and quantities NO_QUANTITY stand for nulls
+    private static final class Batch {
+        final long[] categoryIds;
+        final double[] prices;
+        final int[] quantities;
+        final int[] thresholds;
+        int size;
+
+        Batch(int capacity) {
+            categoryIds = new long[capacity];
+            prices = new double[capacity];
+            quantities = new int[capacity];
+            thresholds = new int[capacity];
+        }
+    }
+}
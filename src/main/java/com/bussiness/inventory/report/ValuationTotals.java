@@ -0,0 +1,57 @@
+package com.bussiness.inventory.report;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// one row of the valuation report; not thread-safe, each partition folds into its own instances
+final class ValuationTotals {
+
+    long products;
+    long units;
+    long priced;
+    double minPrice = Double.POSITIVE_INFINITY;
+    double maxPrice = Double.NEGATIVE_INFINITY;
+    long lowStock;
+    long outOfStock;
+    final DecimalSum value = new DecimalSum();
+    final DecimalSum priceSum = new DecimalSum();
+
+    // price is NaN and quantity NO_QUANTITY when the column is null; the stock levels follow StockAlertService
+    void add(double price, int quantity, int threshold) {
+        products++;
+        boolean hasPrice = !Double.isNaN(price);
+        if (hasPrice) {
+            priced++;
+            minPrice = Math.min(minPrice, price);
+            maxPrice = Math.max(maxPrice, price);
+            priceSum.add(price, 1);
+        }
+        if (quantity != InventoryValuationService.NO_QUANTITY) {
+            units += quantity;
+            if (hasPrice) {
+                value.add(price, quantity);
+            }
+            if (quantity <= 0) {
+                outOfStock++;
+            } else if (quantity < threshold) {
+                lowStock++;
+            }
+        }
+    }
+
+    void addAll(ValuationTotals other) {
+        products += other.products;
+        units += other.units;
+        priced += other.priced;
+        minPrice = Math.min(minPrice, other.minPrice);
+        maxPrice = Math.max(maxPrice, other.maxPrice);
+        lowStock += other.lowStock;
+        outOfStock += other.outOfStock;
+        value.addAll(other.value);
+        priceSum.addAll(other.priceSum);
+    }
+
+    BigDecimal averagePrice() {
+        return priced == 0 ? null : priceSum.value().divide(BigDecimal.valueOf(priced), 2, RoundingMode.HALF_EVEN);
+    }
+}
@@ -1,10 +1,13 @@
 package com.bussiness.inventory.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.bussiness.inventory.dto.CategorySummary;
 import com.bussiness.inventory.model.Category;
 
 @Repository
@@ -12,5 +15,12 @@ public interface CategoryRepository extends JpaRepository<Category, Long>{
   
     boolean existsByName(String name);
     Optional<Category> findByName(String name);
+
+    @Query("select new com.bussiness.inventory.dto.CategorySummary(c.id, c.name, c.description, c.reorderThreshold) from Category c order by c.id")
+    List<CategorySummary> findSummaries();
+
+    @Query("select new com.bussiness.inventory.dto.CategorySummary(c.id, c.name, c.description, c.reorderThreshold, count(p))"
+            + " from Category c left join c.products p group by c.id, c.name, c.description, c.reorderThreshold order by c.id")
+    List<CategorySummary> findSummariesWithProductCount();
     
 }
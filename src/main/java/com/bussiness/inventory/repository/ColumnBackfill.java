@@ -0,0 +1,32 @@
+package com.bussiness.inventory.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+// fills derived columns for rows stored before those columns existed; runs once the schema is in place
+@Component
+@DependsOn("entityManagerFactory")
+public class ColumnBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnBackfill.class);
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @PostConstruct
+    void init(){
+        int unitValues = productJdbcRepository.backfillUnitValues();
+        if(unitValues > 0){
+            logger.info("backfilled unit value for {} products", unitValues);
+        }
+        int versions = productJdbcRepository.backfillVersions();
+        if(versions > 0){
+            logger.info("backfilled version for {} rows", versions);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.bussiness.inventory.repository;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.bussiness.inventory.model.Product;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+@Component
+public class ProductIdAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIdAllocator.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private String nextValueSql;
+    private long next;
+    private long limit;
+
+    @PostConstruct
+    void init(){
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        nextValueSql = dialect.getSequenceSupport().getSequenceNextValString(Product.ID_SEQUENCE);
+
+        // tables created while products used IDENTITY already hold ids the new sequence would hand out again
+        long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from products", Long.class);
+        long low = fetchNextValue();
+        if(low <= maxId){
+            logger.warn("{} is behind existing product ids, restarting it at {}", Product.ID_SEQUENCE, maxId + 1);
+            jdbcTemplate.execute("alter sequence " + Product.ID_SEQUENCE + " restart with " + (maxId + 1));
+            low = fetchNextValue();
+        }
+        next = low;
+        limit = low + Product.ID_ALLOCATION_SIZE;
+    }
+
+    public long nextId(){
+        lock.lock();
+        try{
+            if(next >= limit){
+                next = fetchNextValue();
+                limit = next + Product.ID_ALLOCATION_SIZE;
+            }
+            return next++;
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    private long fetchNextValue(){
+        return jdbcTemplate.queryForObject(nextValueSql, Long.class);
+    }
+}
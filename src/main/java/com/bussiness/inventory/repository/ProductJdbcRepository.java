@@ -0,0 +1,142 @@
+package com.bussiness.inventory.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.bussiness.inventory.dto.ProductSummary;
+import com.bussiness.inventory.event.ProductSnapshot;
+import com.bussiness.inventory.model.Product;
+
+@Repository
+public class ProductJdbcRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${inventory.products.stream-fetch-size:1000}")
+    private int fetchSize;
+
+    // rows are handed to the callback as the driver fetches them; postgres only uses a
+    // server-side cursor when this runs inside a transaction (autocommit off)
+    public void streamAll(RowCallbackHandler handler){
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "select id, name, price, quantity, category_id from products order by id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, handler);
+    }
+
+    // only what the valuation report aggregates, in no particular order so the database does not sort
+    public void streamForValuation(RowCallbackHandler handler){
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "select category_id, price, quantity, reorder_threshold from products",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, handler);
+    }
+
+    // (id, column) pairs in column order, for the in-memory sorted view; column is a fixed name, never user input
+    public void streamOrderedBy(String column, RowCallbackHandler handler){
+        if(!column.equals("price") && !column.equals("quantity")){
+            throw new IllegalArgumentException("unsupported sort column: " + column);
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "select id, " + column + " from products where " + column + " is not null order by " + column + ", id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, handler);
+    }
+
+    // one statement for any number of ids (= any over an array parameter), so the driver and database can
+    // reuse it; results come back in no particular order
+    public List<ProductSummary> findSummariesByIds(List<Long> ids){
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "select p.id, p.name, p.price, p.quantity, c.id, c.name from products p"
+                    + " left join categories c on c.id = p.category_id where p.id = any (?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, (rs, rowNum) -> new ProductSummary(rs.getLong(1), rs.getString(2),
+                rs.getObject(3, Double.class), rs.getObject(4, Integer.class),
+                rs.getObject(5, Long.class), rs.getString(6)));
+    }
+
+    // locks the rows for the rest of the transaction, in id order, so concurrent bulk stock updates
+    // queue behind each other instead of deadlocking; results come back ordered by id
+    public List<ProductSnapshot> lockForStockUpdate(List<Long> ids){
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "select id, name, price, quantity, category_id, version, reorder_threshold from products"
+                    + " where id = any (?) order by id for update");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, (rs, rowNum) -> new ProductSnapshot(rs.getLong(1), rs.getString(2), rs.getObject(3, Double.class),
+                rs.getObject(4, Integer.class), rs.getObject(5, Long.class), rs.getObject(6, Long.class),
+                rs.getObject(7, Integer.class)));
+    }
+
+    // writes the quantities of rows locked by lockForStockUpdate, keeping unit_value and version in step
+    // the way ProductRepository.adjustQuantity does
+    public void batchUpdateStock(List<ProductSnapshot> products){
+        jdbcTemplate.batchUpdate(
+                "update products set quantity = ?, unit_value = ?, version = version + 1 where id = ?",
+                products, products.size(), (ps, product) -> {
+                    ps.setInt(1, product.quantity());
+                    Double unitValue = Product.unitValueOf(product.price(), product.quantity());
+                    if(unitValue != null){
+                        ps.setDouble(2, unitValue);
+                    }else{
+                        ps.setNull(2, Types.DOUBLE);
+                    }
+                    ps.setLong(3, product.id());
+                });
+    }
+
+    // rows written before unit_value existed; later writes keep it current
+    public int backfillUnitValues(){
+        return jdbcTemplate.update("update products set unit_value = price / quantity where unit_value is null and quantity > 0");
+    }
+
+    // rows written before the version columns existed; hibernate treats a null version as an unsaved entity
+    public int backfillVersions(){
+        return jdbcTemplate.update("update products set version = 0 where version is null")
+                + jdbcTemplate.update("update categories set version = 0 where version is null");
+    }
+
+    // products must already carry their id (see ProductIdAllocator)
+    public void batchInsert(List<Product> products){
+        jdbcTemplate.batchUpdate(
+                "insert into products (id, name, price, quantity, category_id, unit_value, version) values (?, ?, ?, ?, ?, ?, 0)",
+                products, products.size(), (ps, product) -> {
+                    ps.setLong(1, product.getId());
+                    ps.setString(2, product.getName());
+                    ps.setDouble(3, product.getPrice());
+                    ps.setInt(4, product.getQuantity());
+                    if(product.getCategory() != null){
+                        ps.setLong(5, product.getCategory().getId());
+                    }else{
+                        ps.setNull(5, Types.BIGINT);
+                    }
+                    Double unitValue = Product.unitValueOf(product.getPrice(), product.getQuantity());
+                    if(unitValue != null){
+                        ps.setDouble(6, unitValue);
+                    }else{
+                        ps.setNull(6, Types.DOUBLE);
+                    }
+                });
+    }
+}
@@ -1,36 +1,96 @@
 package com.bussiness.inventory.repository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.bussiness.inventory.dto.ProductSummary;
+import com.bussiness.inventory.event.ProductSnapshot;
 import com.bussiness.inventory.model.Product;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long>{
 
-    List<Product> findByCategoryId(Long categoryId);
+    // list queries select ProductSummary rows in one statement; returning entities would also load
+    // each product's (eager) category with its own select
+    String SUMMARY = "select new com.bussiness.inventory.dto.ProductSummary(p.id, p.name, p.price, p.quantity, c.id, c.name)"
+            + " from Product p left join p.category c ";
 
-    @Query("select p from Product p where LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Product> searchByName(@Param("name") String name);
+    @Query(SUMMARY + "where c.id = :categoryId")
+    List<ProductSummary> findByCategoryId(@Param("categoryId") Long categoryId);
 
-    @Query("select p from Product p where p.price BETWEEN :minPrice and :maxPrice")
-    List<Product> findByPriceRange(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice);
+    @Query(SUMMARY + "where p.id > :afterId order by p.id")
+    List<ProductSummary> findPageAfter(@Param("afterId") Long afterId, Limit limit);
 
-    @Query("select p from Product p where p.quantity < :threshold")
-    List<Product> findLowStockPrice(@Param("threshold") Integer threshold);
+    @Query(value = SUMMARY + "where LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) order by p.id",
+            countQuery = "select count(p) from Product p where LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
+    Page<ProductSummary> searchByName(@Param("name") String name, Pageable pageable);
 
-    @Query("select p from Product p where p.quantity=0")
-    List<Product> findOutOfStockProducts();
+    // range queries order by the indexed column then id, the same order ProductSortedView returns
+    @Query(value = SUMMARY + "where p.price BETWEEN :minPrice and :maxPrice order by p.price, p.id",
+            countQuery = "select count(p) from Product p where p.price BETWEEN :minPrice and :maxPrice")
+    Page<ProductSummary> findByPriceRange(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice, Pageable pageable);
 
-    @Query("select p from Product p where p.quantity>0 and (p.price/p.quantity) > :price")
-    List<Product> findPremiumStock(@Param("price") Double price);
+    @Query(value = SUMMARY + "where p.quantity < :threshold order by p.quantity, p.id",
+            countQuery = "select count(p) from Product p where p.quantity < :threshold")
+    Page<ProductSummary> findLowStockPrice(@Param("threshold") Integer threshold, Pageable pageable);
+
+    @Query(value = SUMMARY + "where p.quantity=0 order by p.id",
+            countQuery = "select count(p) from Product p where p.quantity=0")
+    Page<ProductSummary> findOutOfStockProducts(Pageable pageable);
+
+    // unit_value is null for out-of-stock rows, so the comparison alone skips them; (unit_value, id) is
+    // indexed, and both keys descending lets the database walk that index backwards
+    @Query(value = SUMMARY + "where p.unitValue > :price order by p.unitValue desc, p.id desc",
+            countQuery = "select count(p) from Product p where p.unitValue > :price")
+    Page<ProductSummary> findPremiumStock(@Param("price") Double price, Pageable pageable);
+
+    @Query(SUMMARY + "where p.unitValue > :price order by p.unitValue desc, p.id desc")
+    List<ProductSummary> findTopPremiumStock(@Param("price") Double price, Limit limit);
 
     @Query("select count(p) from Product p where p.quantity>0")
     Long countProductInStock();
 
     @Query("select SUM(p.price * p.quantity) from Product p")
     Double getTotalInventory();
+
+    // single conditional statement: the row lock is held only for this update, and stock can never go negative.
+    // bulk updates skip entity callbacks and versioning, so unit value and version are maintained here (the right-hand side sees the old quantity)
+    // the check adds in bigint, so a delta that would take the quantity past int range updates no row instead of failing
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity + :delta, p.version = p.version + 1,"
+            + " p.unitValue = case when p.quantity + :delta > 0 then p.price / (p.quantity + :delta) else null end"
+            + " where p.id = :id and cast(p.quantity as Long) + :delta between 0 and 2147483647")
+    int adjustQuantity(@Param("id") Long id, @Param("delta") long delta);
+
+    // the category is fetched in the same statement rather than one select per distinct category
+    @Query("select p from Product p left join fetch p.category where p.id in :ids")
+    List<Product> findWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.quantity from Product p where p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+
+    // what a stock change publishes, read by primary key without loading the entity or joining its category
+    @Query("select new com.bussiness.inventory.event.ProductSnapshot(p.id, p.name, p.price, p.quantity, p.category.id, p.version, p.reorderThreshold)"
+            + " from Product p where p.id = :id")
+    Optional<ProductSnapshot> findSnapshotById(@Param("id") Long id);
+
+    // products already out of stock or below their effective reorder threshold, for seeding the open stock alerts (see levelOf)
+    @Query("select new com.bussiness.inventory.event.ProductSnapshot(p.id, p.name, p.price, p.quantity, c.id, p.version, p.reorderThreshold)"
+            + " from Product p left join p.category c"
+            + " where p.quantity <= 0 or p.quantity < coalesce(p.reorderThreshold, c.reorderThreshold, :defaultThreshold)")
+    List<ProductSnapshot> findBelowReorderThreshold(@Param("defaultThreshold") int defaultThreshold);
+
+    // the products that take their threshold from this category
+    @Query("select new com.bussiness.inventory.event.ProductSnapshot(p.id, p.name, p.price, p.quantity, p.category.id, p.version, p.reorderThreshold)"
+            + " from Product p where p.category.id = :categoryId and p.reorderThreshold is null")
+    List<ProductSnapshot> findInheritingReorderThreshold(@Param("categoryId") Long categoryId);
 }
@@ -0,0 +1,449 @@
+package com.bussiness.inventory.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process search index over product names.
+ * Trigrams index the distinct words of all names, so each query word is first expanded to the vocabulary words
+ * it matches (as a prefix or with a few typos); documents are then found by intersecting the sorted postings
+ * of those words. Renames and deletes tombstone the old document and the index is rebuilt once tombstones dominate.
+ */
+public class ProductSearchIndex {
+
+    private static final int MIN_COMPACTION_TOMBSTONES = 10_000;
+    private static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+    private static final int MIN_FUZZY_PREFIX = 4;
+
+    private final double minSimilarity;
+    private final int maxExpansions;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] productIds;
+    private String[] names;
+    private BitSet deleted;
+    private int docCount;
+    private int tombstones;
+    private Map<Long, Integer> docByProduct;
+
+    private Map<String, Integer> wordIds;
+    private List<String> words;
+    private List<Postings> wordDocs;
+    private int[] wordGramCounts;
+    private Map<String, Postings> gramWords;
+
+    public ProductSearchIndex(double minSimilarity, int maxExpansions) {
+        this.minSimilarity = minSimilarity;
+        this.maxExpansions = maxExpansions;
+        reset(1024);
+    }
+
+    public record SearchHits(long total, List<Long> productIds) {
+    }
+
+    public void put(long productId, String name) {
+        String normalized = normalize(name);
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByProduct.get(productId);
+            if (existing != null) {
+                if (names[existing].equals(normalized)) {
+                    return;
+                }
+                tombstone(existing);
+            }
+            addDocument(productId, normalized);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByProduct.remove(productId);
+            if (existing != null) {
+                tombstone(existing);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // every query word must match a word of the name; the last one is matched as a prefix
+    // so results are useful while the user is still typing
+    public SearchHits search(String query, int page, int size) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return new SearchHits(0, List.of());
+        }
+        String[] tokens = normalized.split(" ");
+
+        lock.readLock().lock();
+        try {
+            TokenMatches[] matches = new TokenMatches[tokens.length];
+            for (int t = 0; t < tokens.length; t++) {
+                matches[t] = expand(tokens[t], t == tokens.length - 1);
+                if (matches[t] == null) {
+                    return new SearchHits(0, List.of());
+                }
+            }
+
+            Comparator<Hit> ranking = Comparator.comparingDouble((Hit hit) -> hit.score).reversed()
+                    .thenComparingInt(hit -> names[hit.doc].length())
+                    .thenComparingLong(hit -> productIds[hit.doc]);
+            long keepRows = ((long) page + 1) * size;
+            if (page < 0 || size < 0 || keepRows > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("search page " + page + " of size " + size + " is out of range");
+            }
+            int keep = (int) keepRows;
+            // grows with the hits actually found rather than with the requested page
+            PriorityQueue<Hit> top = new PriorityQueue<>(ranking.reversed());
+            long total = 0;
+
+            // leapfrog intersection: move every token to the largest current doc until they all agree
+            int target = 0;
+            while (true) {
+                int doc = target;
+                boolean aligned = false;
+                while (!aligned) {
+                    aligned = true;
+                    for (TokenMatches match : matches) {
+                        int current = match.advanceTo(doc);
+                        if (current == NO_MORE_DOCS) {
+                            return page(top, ranking, page, size, total);
+                        }
+                        if (current != doc) {
+                            doc = current;
+                            aligned = false;
+                        }
+                    }
+                }
+                target = doc + 1;
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                total++;
+                double score = 0;
+                for (TokenMatches match : matches) {
+                    score += match.similarity;
+                }
+                score /= matches.length;
+                if (names[doc].startsWith(normalized)) {
+                    score += 1.0;
+                } else if (names[doc].contains(normalized)) {
+                    score += 0.5;
+                }
+                Hit hit = new Hit(doc, score);
+                if (top.size() < keep) {
+                    top.add(hit);
+                } else if (keep > 0 && ranking.compare(hit, top.peek()) < 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private SearchHits page(PriorityQueue<Hit> top, Comparator<Hit> ranking, int page, int size, long total) {
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(ranking);
+        List<Long> ids = new ArrayList<>(size);
+        for (int r = page * size; r < ranked.size(); r++) {
+            ids.add(productIds[ranked.get(r).doc]);
+        }
+        return new SearchHits(total, ids);
+    }
+
+    // finds the vocabulary words close enough to the token, best first, capped at maxExpansions
+    private TokenMatches expand(String token, boolean prefix) {
+        Set<String> queryGrams = trigrams(token, prefix);
+        int required = Math.max(1, (int) Math.ceil(minSimilarity * queryGrams.size()));
+        Postings[] lists = new Postings[queryGrams.size()];
+        int i = 0;
+        for (String gram : queryGrams) {
+            lists[i++] = gramWords.getOrDefault(gram, Postings.EMPTY);
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        // a word sharing `required` grams must contain one of the rarest (n - required + 1),
+        // so only those lists generate candidates and the common ones are just probed
+        int candidateLists = lists.length - required + 1;
+        int total = 0;
+        for (int l = 0; l < candidateLists; l++) {
+            total += lists[l].size;
+        }
+        int[] candidates = new int[total];
+        int offset = 0;
+        for (int l = 0; l < candidateLists; l++) {
+            System.arraycopy(lists[l].docs, 0, candidates, offset, lists[l].size);
+            offset += lists[l].size;
+        }
+        Arrays.sort(candidates);
+
+        List<Expansion> expansions = new ArrayList<>();
+        int c = 0;
+        while (c < candidates.length) {
+            int word = candidates[c];
+            int shared = 0;
+            while (c < candidates.length && candidates[c] == word) {
+                shared++;
+                c++;
+            }
+            for (int l = candidateLists; l < lists.length && shared + (lists.length - l) >= required; l++) {
+                if (lists[l].contains(word)) {
+                    shared++;
+                }
+            }
+            if (shared < required) {
+                continue;
+            }
+            // a prefix only has to be covered; a whole word also has to be about as long as the match.
+            // Too few grams in a short prefix to tell a typo from another word, so those must match exactly
+            double similarity;
+            if (prefix) {
+                similarity = words.get(word).startsWith(token) ? 1.0
+                        : token.length() < MIN_FUZZY_PREFIX ? 0 : (double) shared / queryGrams.size();
+            } else {
+                similarity = 2.0 * shared / (queryGrams.size() + wordGramCounts[word]);
+            }
+            if (similarity >= minSimilarity && wordDocs.get(word).size > 0) {
+                expansions.add(new Expansion(word, similarity));
+            }
+        }
+        if (expansions.isEmpty()) {
+            return null;
+        }
+        expansions.sort(Comparator.comparingDouble((Expansion e) -> e.similarity).reversed()
+                .thenComparingInt(e -> words.get(e.word).length()));
+        if (expansions.size() > maxExpansions) {
+            expansions = expansions.subList(0, maxExpansions);
+        }
+        return new TokenMatches(expansions);
+    }
+
+    private void addDocument(long productId, String normalized) {
+        int doc = docCount++;
+        ensureCapacity(docCount);
+        productIds[doc] = productId;
+        names[doc] = normalized;
+        if (!normalized.isEmpty()) {
+            for (String word : new LinkedHashSet<>(Arrays.asList(normalized.split(" ")))) {
+                wordDocs.get(wordId(word)).add(doc);
+            }
+        }
+        docByProduct.put(productId, doc);
+    }
+
+    private int wordId(String word) {
+        Integer existing = wordIds.get(word);
+        if (existing != null) {
+            return existing;
+        }
+        int id = words.size();
+        words.add(word);
+        wordDocs.add(new Postings());
+        wordIds.put(word, id);
+        Set<String> grams = trigrams(word, false);
+        if (id >= wordGramCounts.length) {
+            wordGramCounts = Arrays.copyOf(wordGramCounts, wordGramCounts.length * 2);
+        }
+        wordGramCounts[id] = grams.size();
+        for (String gram : grams) {
+            gramWords.computeIfAbsent(gram, g -> new Postings()).add(id);
+        }
+        return id;
+    }
+
+    private void tombstone(int doc) {
+        deleted.set(doc);
+        tombstones++;
+    }
+
+    private void compactIfNeeded() {
+        if (tombstones < MIN_COMPACTION_TOMBSTONES || tombstones < docCount / 2) {
+            return;
+        }
+        long[] oldIds = productIds;
+        String[] oldNames = names;
+        int oldCount = docCount;
+        BitSet oldDeleted = deleted;
+        reset(Math.max(1024, oldCount - tombstones));
+        for (int doc = 0; doc < oldCount; doc++) {
+            if (!oldDeleted.get(doc)) {
+                addDocument(oldIds[doc], oldNames[doc]);
+            }
+        }
+    }
+
+    private void reset(int capacity) {
+        productIds = new long[capacity];
+        names = new String[capacity];
+        deleted = new BitSet();
+        docCount = 0;
+        tombstones = 0;
+        docByProduct = new HashMap<>();
+        wordIds = new HashMap<>();
+        words = new ArrayList<>();
+        wordDocs = new ArrayList<>();
+        wordGramCounts = new int[1024];
+        gramWords = new HashMap<>();
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > productIds.length) {
+            int capacity = Math.max(needed, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+
+    // pg_trgm style: a word is padded with two leading blanks and one trailing blank;
+    // a prefix leaves the trailing blank off so it matches any longer word
+    static Set<String> trigrams(String word, boolean prefix) {
+        Set<String> grams = new LinkedHashSet<>();
+        String padded = "  " + word + (prefix ? "" : " ");
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private record Hit(int doc, double score) {
+    }
+
+    private record Expansion(int word, double similarity) {
+    }
+
+    // union of the postings of one query word's expansions, walked in doc order
+    private final class TokenMatches {
+        private final Postings[] lists;
+        private final double[] similarities;
+        private final int[] positions;
+        private int doc = -1;
+        private double similarity;
+
+        TokenMatches(List<Expansion> expansions) {
+            lists = new Postings[expansions.size()];
+            similarities = new double[expansions.size()];
+            positions = new int[expansions.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = wordDocs.get(expansions.get(i).word);
+                similarities[i] = expansions.get(i).similarity;
+            }
+        }
+
+        int advanceTo(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            int next = NO_MORE_DOCS;
+            double best = 0;
+            for (int i = 0; i < lists.length; i++) {
+                Postings list = lists[i];
+                int position = positions[i];
+                if (position < list.size && list.docs[position] < target) {
+                    position = list.lowerBound(position, target);
+                    positions[i] = position;
+                }
+                if (position < list.size) {
+                    int candidate = list.docs[position];
+                    if (candidate < next) {
+                        next = candidate;
+                        best = similarities[i];
+                    } else if (candidate == next) {
+                        best = Math.max(best, similarities[i]);
+                    }
+                }
+            }
+            doc = next;
+            similarity = best;
+            return doc;
+        }
+    }
+
+    private static class Postings {
+        static final Postings EMPTY = new Postings();
+
+        int[] docs = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = value;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(docs, 0, size, value) >= 0;
+        }
+
+        // first position at or after `from` holding a value >= target, galloping then binary search
+        int lowerBound(int from, int target) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && docs[high] < target) {
+                low = high + 1;
+                high = from + step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (docs[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
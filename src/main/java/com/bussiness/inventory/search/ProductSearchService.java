@@ -0,0 +1,112 @@
+package com.bussiness.inventory.search;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bussiness.inventory.event.ProductChangeEvent;
+import com.bussiness.inventory.repository.ProductJdbcRepository;
+
+@Service
+public class ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.search.enabled:true}")
+    private boolean enabled;
+
+    private final ProductSearchIndex index;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private Set<Long> changedDuringLoad;
+    private volatile boolean ready;
+
+    public ProductSearchService(@Value("${inventory.search.min-similarity:0.5}") double minSimilarity,
+                                @Value("${inventory.search.max-expansions:32}") int maxExpansions) {
+        this.index = new ProductSearchIndex(minSimilarity, maxExpansions);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public ProductSearchIndex.SearchHits search(String query, int page, int size) {
+        return index.search(query, page, size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChange(ProductChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(event.productId());
+            }
+            if (event.after() == null) {
+                index.remove(event.productId());
+            } else if (event.before() == null || !Objects.equals(event.after().name(), event.before().name())) {
+                index.put(event.productId(), event.after().name());
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        setChangedDuringLoad(new HashSet<>());
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> productJdbcRepository.streamAll(rs -> {
+            long id = rs.getLong("id");
+            String name = rs.getString("name");
+            loadLock.lock();
+            try {
+                // a live event already carries a newer name than the row this scan read
+                if (!changedDuringLoad.contains(id)) {
+                    index.put(id, name);
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }));
+        setChangedDuringLoad(null);
+        ready = true;
+        logger.info("product search index loaded {} products in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    private void setChangedDuringLoad(Set<Long> changed) {
+        loadLock.lock();
+        try {
+            changedDuringLoad = changed;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.bussiness.inventory.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.bussiness.inventory.event.ProductSnapshot;
+
+/**
+ * Product ids ordered by price and by quantity, answering range queries with binary search.
+ * Each column is a pair of primitive arrays sorted by (value, id) loaded once from the database; later writes
+ * go to a small sorted overlay and mark the outdated array entry stale, and the two are merged back into
+ * fresh arrays once the overlay reaches {@code rebuildThreshold} entries. Until {@link #finishLoading()} the
+ * arrays are still being appended to, so writes only collect in the overlay.
+ */
+public class ProductSortedView {
+
+    private final SortedColumn byPrice;
+    private final SortedColumn byQuantity;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductSortedView(int rebuildThreshold) {
+        this.byPrice = new SortedColumn(rebuildThreshold);
+        this.byQuantity = new SortedColumn(rebuildThreshold);
+    }
+
+    public record Slice(long total, List<Long> productIds) {
+    }
+
+    // rows must arrive ordered by (price, id), as the loading query sorts them
+    public void loadPrice(long productId, double price) {
+        lock.writeLock().lock();
+        try {
+            byPrice.append(priceKey(price), productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // rows must arrive ordered by (quantity, id)
+    public void loadQuantity(long productId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            byQuantity.append(quantity, productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // rebuilds are held back until the loaded rows are complete, then caught up on here
+    public void finishLoading() {
+        lock.writeLock().lock();
+        try {
+            byPrice.finishLoading();
+            byQuantity.finishLoading();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // before is null for a new product, after is null for a deleted one
+    public void update(long productId, ProductSnapshot before, ProductSnapshot after) {
+        Double oldPrice = before != null ? before.price() : null;
+        Double newPrice = after != null ? after.price() : null;
+        Integer oldQuantity = before != null ? before.quantity() : null;
+        Integer newQuantity = after != null ? after.quantity() : null;
+        lock.writeLock().lock();
+        try {
+            if (before == null || after == null || !equal(oldPrice, newPrice)) {
+                byPrice.move(productId, oldPrice == null ? null : priceKey(oldPrice), newPrice == null ? null : priceKey(newPrice));
+            }
+            if (before == null || after == null || !equal(oldQuantity, newQuantity)) {
+                byQuantity.move(productId, oldQuantity == null ? null : (long) oldQuantity,
+                        newQuantity == null ? null : (long) newQuantity);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // products with minPrice <= price <= maxPrice, ordered by price then id
+    public Slice priceRange(double minPrice, double maxPrice, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return byPrice.range(priceKey(minPrice), priceKey(maxPrice), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // products with minQuantity <= quantity <= maxQuantity, ordered by quantity then id
+    public Slice quantityRange(long minQuantity, long maxQuantity, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return byQuantity.range(minQuantity, maxQuantity, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // maps a double onto a long with the same ordering, so both columns share one implementation
+    static long priceKey(double price) {
+        long bits = Double.doubleToLongBits(price + 0.0);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private record Entry(long key, long id) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int byKey = Long.compare(key, other.key);
+            return byKey != 0 ? byKey : Long.compare(id, other.id);
+        }
+    }
+
+    private static final class SortedColumn {
+        private final int rebuildThreshold;
+        private long[] keys = new long[1024];
+        private long[] ids = new long[1024];
+        private int size;
+        // ids whose array entry is outdated, with that entry's key; also kept in key order so a range query
+        // only looks at the stale entries inside its range
+        private final Map<Long, Long> stale = new HashMap<>();
+        private final TreeSet<Entry> staleEntries = new TreeSet<>();
+        // entries written since the last rebuild, and where each id sits in it
+        private final TreeSet<Entry> overlay = new TreeSet<>();
+        private final Map<Long, Long> overlayKeys = new HashMap<>();
+        private boolean loading = true;
+
+        SortedColumn(int rebuildThreshold) {
+            this.rebuildThreshold = rebuildThreshold;
+        }
+
+        void append(long key, long id) {
+            if (!loading) {
+                throw new IllegalStateException("sorted view already finished loading");
+            }
+            if (size > 0 && compare(keys[size - 1], ids[size - 1], key, id) > 0) {
+                throw new IllegalStateException("sorted view rows must be loaded in order");
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            keys[size] = key;
+            ids[size] = id;
+            size++;
+        }
+
+        void move(long id, Long oldKey, Long newKey) {
+            Long overlayKey = overlayKeys.remove(id);
+            if (overlayKey != null) {
+                overlay.remove(new Entry(overlayKey, id));
+            } else if (oldKey != null && stale.putIfAbsent(id, oldKey) == null) {
+                staleEntries.add(new Entry(oldKey, id));
+            }
+            if (newKey != null) {
+                overlay.add(new Entry(newKey, id));
+                overlayKeys.put(id, newKey);
+            }
+            if (!loading && overlay.size() + stale.size() >= rebuildThreshold) {
+                rebuild();
+            }
+        }
+
+        void finishLoading() {
+            loading = false;
+            if (overlay.size() + stale.size() >= rebuildThreshold) {
+                rebuild();
+            }
+        }
+
+        Slice range(long lowKey, long highKey, int offset, int limit) {
+            if (lowKey > highKey) {
+                return new Slice(0, List.of());
+            }
+            int from = lowerBound(lowKey, Long.MIN_VALUE);
+            int to = lowerBound(highKey, Long.MAX_VALUE);
+            NavigableSet<Entry> extra = overlay.subSet(new Entry(lowKey, Long.MIN_VALUE), true, new Entry(highKey, Long.MAX_VALUE), true);
+            long total = (to - from) + extra.size();
+            for (Entry outdated : staleEntries.subSet(new Entry(lowKey, Long.MIN_VALUE), true, new Entry(highKey, Long.MAX_VALUE), true)) {
+                if (contains(outdated.key(), outdated.id())) {
+                    total--;
+                }
+            }
+
+            List<Long> page = new ArrayList<>(Math.max(0, Math.min(limit, (int) Math.min(Integer.MAX_VALUE, total))));
+            Iterator<Entry> overlayEntries = extra.iterator();
+            Entry next = overlayEntries.hasNext() ? overlayEntries.next() : null;
+            int i = from;
+            long skipped = 0;
+            while (page.size() < limit) {
+                while (i < to && stale.containsKey(ids[i])) {
+                    i++;
+                }
+                long id;
+                if (i < to && (next == null || compare(keys[i], ids[i], next.key(), next.id()) < 0)) {
+                    id = ids[i++];
+                } else if (next != null) {
+                    id = next.id();
+                    next = overlayEntries.hasNext() ? overlayEntries.next() : null;
+                } else {
+                    break;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    page.add(id);
+                }
+            }
+            return new Slice(total, page);
+        }
+
+        // merges the live array entries with the overlay into new arrays
+        private void rebuild() {
+            int live = size + overlay.size();
+            long[] newKeys = new long[Math.max(1024, live)];
+            long[] newIds = new long[newKeys.length];
+            int n = 0;
+            Iterator<Entry> overlayEntries = overlay.iterator();
+            Entry next = overlayEntries.hasNext() ? overlayEntries.next() : null;
+            int i = 0;
+            while (true) {
+                while (i < size && stale.containsKey(ids[i])) {
+                    i++;
+                }
+                if (i < size && (next == null || compare(keys[i], ids[i], next.key(), next.id()) < 0)) {
+                    newKeys[n] = keys[i];
+                    newIds[n++] = ids[i++];
+                } else if (next != null) {
+                    newKeys[n] = next.key();
+                    newIds[n++] = next.id();
+                    next = overlayEntries.hasNext() ? overlayEntries.next() : null;
+                } else {
+                    break;
+                }
+            }
+            keys = newKeys;
+            ids = newIds;
+            size = n;
+            stale.clear();
+            staleEntries.clear();
+            overlay.clear();
+            overlayKeys.clear();
+        }
+
+        private boolean contains(long key, long id) {
+            int position = lowerBound(key, id);
+            return position < size && keys[position] == key && ids[position] == id;
+        }
+
+        // first position whose (key, id) is not below the given pair
+        private int lowerBound(long key, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(keys[mid], ids[mid], key, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static int compare(long key, long id, long otherKey, long otherId) {
+            int byKey = Long.compare(key, otherKey);
+            return byKey != 0 ? byKey : Long.compare(id, otherId);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.bussiness.inventory.search;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bussiness.inventory.event.ProductChangeEvent;
+import com.bussiness.inventory.repository.ProductJdbcRepository;
+
+// serves price-range and stock-threshold queries from memory once loaded; until then callers query the database
+@Service
+public class ProductSortedViewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSortedViewService.class);
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.sorted-view.enabled:true}")
+    private boolean enabled;
+
+    private final ProductSortedView view;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    // products written before or during the initial load, whose rows it skips; null once loaded
+    private Set<Long> changedDuringLoad = new HashSet<>();
+    private volatile boolean ready;
+
+    public ProductSortedViewService(@Value("${inventory.sorted-view.rebuild-threshold:16384}") int rebuildThreshold) {
+        this.view = new ProductSortedView(rebuildThreshold);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public ProductSortedView.Slice priceRange(double minPrice, double maxPrice, int offset, int limit) {
+        return view.priceRange(minPrice, maxPrice, offset, limit);
+    }
+
+    public ProductSortedView.Slice quantityRange(long minQuantity, long maxQuantity, int offset, int limit) {
+        return view.quantityRange(minQuantity, maxQuantity, offset, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChange(ProductChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(event.productId());
+                if (event.before() == null) {
+                    // the scan may already have read the committed row: drop that copy before adding the product
+                    view.update(event.productId(), event.after(), null);
+                }
+            }
+            view.update(event.productId(), event.before(), event.after());
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            productJdbcRepository.streamOrderedBy("price", rs -> {
+                long id = rs.getLong(1);
+                double price = rs.getDouble(2);
+                loadLock.lock();
+                try {
+                    // a live event already moved this product to the overlay
+                    if (!changedDuringLoad.contains(id)) {
+                        view.loadPrice(id, price);
+                    }
+                } finally {
+                    loadLock.unlock();
+                }
+            });
+            productJdbcRepository.streamOrderedBy("quantity", rs -> {
+                long id = rs.getLong(1);
+                int quantity = rs.getInt(2);
+                loadLock.lock();
+                try {
+                    if (!changedDuringLoad.contains(id)) {
+                        view.loadQuantity(id, quantity);
+                    }
+                } finally {
+                    loadLock.unlock();
+                }
+            });
+        });
+        loadLock.lock();
+        try {
+            changedDuringLoad = null;
+            view.finishLoading();
+        } finally {
+            loadLock.unlock();
+        }
+        ready = true;
+        logger.info("product sorted view loaded in {} ms", System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,105 @@
+package com.bussiness.inventory.security;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.bussiness.inventory.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+
+@Component
+public class AuthenticationCache {
+
+    private final Cache<String, VerifiedToken> tokens;
+    private final Cache<String, UserDetails> principals;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AuthenticationCache(@Value("${inventory.auth.token-cache-size:100000}") long tokenCacheSize,
+                               @Value("${inventory.auth.principal-cache-size:10000}") long principalCacheSize,
+                               @Value("${inventory.auth.principal-ttl:30s}") Duration principalTtl) {
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(principalCacheSize)
+                .expireAfterWrite(principalTtl)
+                .build();
+    }
+
+    // parsing (and the HMAC check) only happens on a miss; invalid tokens throw and are not cached
+    public VerifiedToken verify(String jwt, Function<String, Claims> parser) {
+        return tokens.get(jwt, key -> {
+            Claims claims = parser.apply(key);
+            Date expiration = claims.getExpiration();
+            return new VerifiedToken(claims.getSubject(), expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        });
+    }
+
+    // the loader queries the database, so it runs outside Caffeine's compute: that holds a map bin's monitor,
+    // which would pin a virtual thread to its carrier for the whole query. concurrent misses may both load
+    public UserDetails principal(String username, Function<String, User> loader) {
+        UserDetails cached = principals.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = evictions.get();
+        User user = loader.apply(username);
+        UserDetails loaded = org.springframework.security.core.userdetails.User.builder()
+                .username(user.getUsername())
+                .password(user.getPassword())
+                .authorities(Collections.singletonList(
+                        new SimpleGrantedAuthority("ROLE_" + user.getRole())
+                ))
+                .build();
+        principals.put(username, loaded);
+        // an eviction that raced with the load may have run before our put; drop what we cached
+        if (evictions.get() != generation) {
+            principals.invalidate(username);
+        }
+        return loaded;
+    }
+
+    // tokens only carry the username; role and existence always come from the principal entry
+    public void evictUser(String username) {
+        if (username != null) {
+            evictions.incrementAndGet();
+            principals.invalidate(username);
+        }
+    }
+
+    public record VerifiedToken(String username, long expiresAtMillis) {
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAtMillis;
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return Duration.ofMillis(Math.max(remainingMillis, 0)).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,31 +1,30 @@
 package com.bussiness.inventory.security;
 
-import com.bussiness.inventory.model.User;
 import com.bussiness.inventory.service.UserService;
 import com.bussiness.inventory.util.JwtUtil;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 
 import java.io.IOException;
-import java.util.Collections;
 
 public class JwtAuthenticationFilter implements Filter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     private final JwtUtil jwtUtil;
     private final UserService userService;
+    private final AuthenticationCache authenticationCache;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService, AuthenticationCache authenticationCache) {
         this.jwtUtil = jwtUtil;
         this.userService = userService;
+        this.authenticationCache = authenticationCache;
     }
 
     @Override
@@ -33,51 +32,43 @@ public class JwtAuthenticationFilter implements Filter {
             throws IOException, ServletException {
 
         HttpServletRequest httpRequest = (HttpServletRequest) request;
-        HttpServletResponse httpResponse = (HttpServletResponse) response;
 
         final String authorizationHeader = httpRequest.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
 
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7);
+            AuthenticationCache.VerifiedToken token = null;
             try {
-                username = jwtUtil.extractUsername(jwt);
-                logger.info("JWT extracted for user: {}", username);
+                token = authenticationCache.verify(jwt, jwtUtil::parseClaims);
+                logger.debug("JWT extracted for user: {}", token.username());
             } catch (Exception e) {
                 logger.error("Error extracting token: {}", e.getMessage());
             }
-        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                User user = userService.findByUsername(username);
-                if (jwtUtil.validateToken(jwt, user.getUsername())) {
-                    UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                            .username(user.getUsername())
-                            .password(user.getPassword())
-                            .authorities(Collections.singletonList(
-                                    new SimpleGrantedAuthority("ROLE_" + user.getRole())
-                            ))
-                            .build();
+            if (token != null) {
+                try {
+                    if (!token.isExpired()) {
+                        UserDetails userDetails = authenticationCache.principal(token.username(), userService::findByUsername);
 
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities()
-                            );
+                        UsernamePasswordAuthenticationToken authToken =
+                                new UsernamePasswordAuthenticationToken(
+                                        userDetails, null, userDetails.getAuthorities()
+                                );
 
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(httpRequest));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                        authToken.setDetails(detailsSource.buildDetails(httpRequest));
+                        SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    logger.info("Token valid for user: {}", username);
-                } else {
-                    logger.warn("Invalid token for user: {}", username);
+                        logger.debug("Token valid for user: {}", token.username());
+                    } else {
+                        logger.warn("Invalid token for user: {}", token.username());
+                    }
+                } catch (Exception e) {
+                    logger.error("Error during authentication: {}", e.getMessage());
                 }
-            } catch (Exception e) {
-                logger.error("Error during authentication: {}", e.getMessage());
             }
         }
 
         chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
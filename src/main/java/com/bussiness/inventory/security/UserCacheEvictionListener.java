@@ -0,0 +1,38 @@
+package com.bussiness.inventory.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bussiness.inventory.model.User;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+@Component
+public class UserCacheEvictionListener {
+
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    // these run at flush: evicting then would let a request reload the old committed row and cache it
+    // for the whole principal-ttl, so the eviction waits for the commit
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        String username = user.getUsername();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            authenticationCache.evictUser(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                authenticationCache.evictUser(username);
+            }
+        });
+    }
+}
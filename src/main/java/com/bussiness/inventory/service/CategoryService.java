@@ -1,7 +1,13 @@
 package com.bussiness.inventory.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bussiness.inventory.cache.CategoryCache;
+import com.bussiness.inventory.dto.CategorySummary;
+import com.bussiness.inventory.event.CategoryChangeEvent;
 import com.bussiness.inventory.model.Category;
 import com.bussiness.inventory.repository.CategoryRepository;
 import java.util.List;
@@ -13,22 +19,34 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
-    public List<Category> getAllCategories(){
-            List<Category> categories = categoryRepository.findAll();
-            return categories;
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public List<CategorySummary> getAllCategories(boolean includeProductCount){
+            if(includeProductCount){
+                return categoryRepository.findSummariesWithProductCount();
+            }
+            // product counts change with every product write, so only the plain list is cached
+            return categoryCache.all();
     }
 
-    public Optional<Category> getCategoryById(Long id){
-        Optional<Category> category = categoryRepository.findById(id);
+    public Optional<CategorySummary> getCategoryById(Long id){
+        Optional<CategorySummary> category = categoryCache.findById(id);
         return category;
      }
 
+    @Transactional
     public Category createCategory(Category category){
         validateCategory(category);
-        if(categoryRepository.existsByName(category.getName())){
+        if(categoryCache.findByName(category.getName()).isPresent()){
             throw new RuntimeException("category with name " + category.getName() + " already exists");
         }
-         return categoryRepository.save(category);
+         Category savedCategory = categoryRepository.save(category);
+         eventPublisher.publishEvent(CategoryChangeEvent.created(savedCategory));
+         return savedCategory;
     }
    public Category updateCategory(Long id, Category category){
           Category existingCategory = categoryRepository.findById(id).orElseThrow(() -> new RuntimeException("category not found with id " + id));
@@ -39,7 +57,10 @@ public class CategoryService {
           }
         existingCategory.setName(category.getName());
         existingCategory.setDescription(category.getDescription());
-        return categoryRepository.save(existingCategory);
+        existingCategory.setReorderThreshold(category.getReorderThreshold());
+        Category savedCategory = categoryRepository.save(existingCategory);
+        eventPublisher.publishEvent(CategoryChangeEvent.updated(savedCategory));
+        return savedCategory;
    }
    public void deleteCategory(Long id){
      if(!categoryRepository.existsById(id)){
@@ -50,6 +71,7 @@ public class CategoryService {
         throw new RuntimeException("cannot delete category with existing products");
      }
      categoryRepository.deleteById(id);
+     eventPublisher.publishEvent(CategoryChangeEvent.deleted(id));
    }
     private void validateCategory(Category category){
         if(category.getName() == null || category.getName().trim().isEmpty()){
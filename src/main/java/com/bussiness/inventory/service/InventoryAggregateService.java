@@ -0,0 +1,250 @@
+package com.bussiness.inventory.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bussiness.inventory.cache.ResourceVersions;
+import com.bussiness.inventory.dto.CategoryInventoryTotals;
+import com.bussiness.inventory.dto.InventoryAggregates;
+import com.bussiness.inventory.event.ProductChangeEvent;
+import com.bussiness.inventory.event.ProductSnapshot;
+import com.bussiness.inventory.repository.ProductJdbcRepository;
+
+@Service
+public class InventoryAggregateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryAggregateService.class);
+    private static final int INITIAL_LOAD_ATTEMPTS = 5;
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Totals totals = new Totals();
+    private long changeCount;
+    // changes whose transaction is committing or committed but not yet applied to totals
+    private long changesInFlight;
+    private volatile boolean loaded;
+
+    public boolean isLoaded(){
+        return loaded;
+    }
+
+    public BigDecimal getTotalValue(){
+        lock.lock();
+        try{
+            return totals.value;
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    public long getInStockCount(){
+        lock.lock();
+        try{
+            return totals.inStockCount;
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    public InventoryAggregates getAggregates(){
+        lock.lock();
+        try{
+            List<CategoryInventoryTotals> categories = new ArrayList<>(totals.categories.size());
+            totals.categories.forEach((categoryId, category) -> categories.add(new CategoryInventoryTotals(
+                    categoryId, category.productCount, category.inStockCount, category.outOfStockCount, category.units, category.value)));
+            return new InventoryAggregates(totals.value, totals.productCount, totals.inStockCount,
+                    totals.outOfStockCount, totals.units, categories);
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChange(ProductChangeEvent event){
+        lock.lock();
+        try{
+            if(event.before() != null){
+                totals.apply(event.before(), -1);
+            }
+            if(event.after() != null){
+                totals.apply(event.after(), 1);
+            }
+            changeCount++;
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    // a scan can see a transaction's rows as soon as it commits, before onProductChange has applied them;
+    // counted from just before the commit until then (or the rollback) so reconcile knows to wait
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onProductChangeCommitting(ProductChangeEvent event){
+        lock.lock();
+        try{
+            changesInFlight++;
+        }
+        finally{
+            lock.unlock();
+        }
+        // ordered after onProductChange, whose synchronization has the highest precedence
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status){
+                lock.lock();
+                try{
+                    changesInFlight--;
+                }
+                finally{
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialLoad(){
+        for(int attempt = 1; attempt <= INITIAL_LOAD_ATTEMPTS && !loaded; attempt++){
+            reconcile();
+        }
+        if(!loaded){
+            logger.warn("inventory aggregates could not be loaded, serving totals from the database until the next reconciliation");
+        }
+    }
+
+    // recounts from the database and repairs drift; skipped when products changed during the scan, or a
+    // committed change is still on its way to the totals, because the scanned rows and the live totals would
+    // then describe different points in time
+    @Scheduled(fixedDelayString = "${inventory.aggregates.reconcile-interval-ms:300000}",
+               initialDelayString = "${inventory.aggregates.reconcile-interval-ms:300000}")
+    public void reconcile(){
+        long changesBefore;
+        lock.lock();
+        try{
+            changesBefore = changeCount;
+        }
+        finally{
+            lock.unlock();
+        }
+
+        Totals scanned = new Totals();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> productJdbcRepository.streamAll(rs -> {
+            double price = rs.getDouble("price");
+            Double boxedPrice = rs.wasNull() ? null : price;
+            int quantity = rs.getInt("quantity");
+            Integer boxedQuantity = rs.wasNull() ? null : quantity;
+            long categoryId = rs.getLong("category_id");
+            Long boxedCategoryId = rs.wasNull() ? null : categoryId;
+            scanned.apply(new ProductSnapshot(rs.getLong("id"), null, boxedPrice, boxedQuantity, boxedCategoryId, null, null), 1);
+        }));
+
+        lock.lock();
+        try{
+            if(changeCount != changesBefore || changesInFlight != 0){
+                logger.debug("products changed during aggregate reconciliation, retrying next round");
+                return;
+            }
+            if(loaded && !totals.sameAs(scanned)){
+                logger.warn("inventory aggregates drifted from the database (value {} vs {}, in stock {} vs {}), repairing",
+                        totals.value, scanned.value, totals.inStockCount, scanned.inStockCount);
+                resourceVersions.markProductsChanged();
+            }
+            totals = scanned;
+            loaded = true;
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    private static class Counts {
+        long productCount;
+        long inStockCount;
+        long outOfStockCount;
+        long units;
+        BigDecimal value = BigDecimal.ZERO;
+
+        void apply(ProductSnapshot product, int sign){
+            productCount += sign;
+            if(product.quantity() != null){
+                units += (long) sign * product.quantity();
+                if(product.quantity() > 0){
+                    inStockCount += sign;
+                }else if(product.quantity() == 0){
+                    outOfStockCount += sign;
+                }
+                if(product.price() != null){
+                    BigDecimal value = BigDecimal.valueOf(product.price()).multiply(BigDecimal.valueOf(product.quantity()));
+                    this.value = sign > 0 ? this.value.add(value) : this.value.subtract(value);
+                }
+            }
+        }
+
+        boolean sameAs(Counts other){
+            return productCount == other.productCount && inStockCount == other.inStockCount
+                    && outOfStockCount == other.outOfStockCount && units == other.units
+                    && value.compareTo(other.value) == 0;
+        }
+    }
+
+    private static class Totals extends Counts {
+        final Map<Long, Counts> categories = new HashMap<>();
+
+        @Override
+        void apply(ProductSnapshot product, int sign){
+            super.apply(product, sign);
+            Counts category = categories.computeIfAbsent(product.categoryId(), id -> new Counts());
+            category.apply(product, sign);
+            if(category.productCount == 0){
+                categories.remove(product.categoryId());
+            }
+        }
+
+        boolean sameAs(Totals other){
+            if(!super.sameAs(other) || categories.size() != other.categories.size()){
+                return false;
+            }
+            for(Map.Entry<Long, Counts> entry : categories.entrySet()){
+                Counts theirs = other.categories.get(entry.getKey());
+                if(theirs == null || !entry.getValue().sameAs(theirs)){
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.bussiness.inventory.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind for users.lastlogin: callers only put the time in a map (the last write per user wins),
+ * and a background thread writes all pending stamps as one batched update every {@code flushIntervalMs},
+ * or sooner once {@code flushSize} users are waiting. Whatever is left is written on shutdown.
+ */
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int flushSize;
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "last-login-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate,
+                             @Value("${inventory.auth.last-login-flush-ms:1000}") long flushIntervalMs,
+                             @Value("${inventory.auth.last-login-flush-size:1000}") int flushSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushSize = flushSize;
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void record(Long userId, LocalDateTime time){
+        pending.put(userId, time);
+        if(flusher.isShutdown()){
+            // shutting down, and the final flush may already be done: write it from here
+            flushQuietly();
+            return;
+        }
+        if(pending.size() >= flushSize && earlyFlushScheduled.compareAndSet(false, true)){
+            try{
+                flusher.execute(() -> {
+                    earlyFlushScheduled.set(false);
+                    flushQuietly();
+                });
+            }
+            catch(RejectedExecutionException e){
+                // shut down since the check above
+                earlyFlushScheduled.set(false);
+                flushQuietly();
+            }
+        }
+    }
+
+    public void flush(){
+        flushLock.lock();
+        try{
+            if(pending.isEmpty()){
+                return;
+            }
+            List<Object[]> batch = new ArrayList<>();
+            for(Map.Entry<Long, LocalDateTime> entry : pending.entrySet()){
+                // remove only the value we read, so a login arriving meanwhile stays for the next flush
+                if(pending.remove(entry.getKey(), entry.getValue())){
+                    batch.add(new Object[] {Timestamp.valueOf(entry.getValue()), entry.getKey()});
+                }
+            }
+            try{
+                jdbcTemplate.batchUpdate("update users set lastlogin = ? where id = ?", batch);
+                logger.debug("flushed last login for {} users", batch.size());
+            }
+            catch(DataAccessException e){
+                // keep the stamps for the next attempt unless a newer one has arrived
+                for(Object[] row : batch){
+                    pending.putIfAbsent((Long) row[1], ((Timestamp) row[0]).toLocalDateTime());
+                }
+                logger.warn("failed to flush last login for {} users, retrying later", batch.size(), e);
+            }
+        }
+        finally{
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly(){
+        try{
+            flush();
+        }
+        catch(RuntimeException e){
+            // an exception would cancel the periodic task
+            logger.warn("last login flush failed", e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown(){
+        flusher.shutdown();
+        try{
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,266 @@
+package com.bussiness.inventory.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bussiness.inventory.cache.CategoryCache;
+import com.bussiness.inventory.dto.BulkImportResponse;
+import com.bussiness.inventory.dto.CategorySummary;
+import com.bussiness.inventory.dto.ImportRowError;
+import com.bussiness.inventory.dto.ProductImportRow;
+import com.bussiness.inventory.event.ProductChangeEvent;
+import com.bussiness.inventory.event.ProductSnapshot;
+import com.bussiness.inventory.model.Category;
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.repository.ProductIdAllocator;
+import com.bussiness.inventory.repository.ProductJdbcRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+@Service
+public class ProductImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private ProductIdAllocator productIdAllocator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public BulkImportResponse importProducts(InputStream body, Format format) throws IOException {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Map<String, Long> categoryIds = new HashMap<>();
+        for(CategorySummary category : categoryCache.all()){
+            categoryIds.put(category.getName(), category.getId());
+        }
+
+        ObjectReader rowReader = objectMapper.readerFor(ProductImportRow.class);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Map<String, Integer> csvColumns = null;
+        List<Product> chunk = new ArrayList<>(batchSize);
+        List<Long> chunkLines = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        String line;
+        while((line = reader.readLine()) != null){
+            lineNumber++;
+            if(line.isBlank()){
+                continue;
+            }
+            if(format == Format.CSV && csvColumns == null){
+                csvColumns = readCsvHeader(line);
+                continue;
+            }
+            run.received++;
+            try{
+                ProductImportRow row = format == Format.CSV ? parseCsvRow(line, csvColumns) : rowReader.readValue(line);
+                Product product = toProduct(row, categoryIds);
+                product.setId(productIdAllocator.nextId());
+                chunk.add(product);
+                chunkLines.add(lineNumber);
+            }
+            catch(JsonProcessingException e){
+                run.fail(lineNumber, "malformed json: " + e.getOriginalMessage());
+            }
+            catch(IllegalArgumentException e){
+                run.fail(lineNumber, e.getMessage());
+            }
+            if(chunk.size() >= batchSize){
+                writeChunk(transactionTemplate, chunk, chunkLines, run);
+            }
+        }
+        writeChunk(transactionTemplate, chunk, chunkLines, run);
+
+        long elapsedNanos = System.nanoTime() - start;
+        long elapsedMs = elapsedNanos / 1_000_000;
+        double rowsPerSecond = elapsedNanos > 0 ? run.imported * 1_000_000_000d / elapsedNanos : 0;
+        logger.info("bulk import finished: {} imported, {} failed in {} ms ({} rows/sec)",
+                run.imported, run.failed, elapsedMs, Math.round(rowsPerSecond));
+        return new BulkImportResponse(run.received, run.imported, run.failed, run.errors,
+                run.failed > run.errors.size(), elapsedMs, rowsPerSecond);
+    }
+
+    private void writeChunk(TransactionTemplate transactionTemplate, List<Product> chunk, List<Long> chunkLines, ImportRun run){
+        if(chunk.isEmpty()){
+            return;
+        }
+        try{
+            transactionTemplate.executeWithoutResult(status -> insert(chunk));
+            run.imported += chunk.size();
+        }
+        catch(DataAccessException batchFailure){
+            // retry row by row so one bad row does not reject the whole chunk
+            for(int i = 0; i < chunk.size(); i++){
+                List<Product> single = List.of(chunk.get(i));
+                try{
+                    transactionTemplate.executeWithoutResult(status -> insert(single));
+                    run.imported++;
+                }
+                catch(DataAccessException e){
+                    run.fail(chunkLines.get(i), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    // events are delivered to listeners once the surrounding transaction commits
+    private void insert(List<Product> products){
+        for(Product product : products){
+            // the version batchInsert stores, so the events carry it
+            product.setVersion(0L);
+        }
+        productJdbcRepository.batchInsert(products);
+        for(Product product : products){
+            eventPublisher.publishEvent(ProductChangeEvent.created(ProductSnapshot.of(product)));
+        }
+    }
+
+    private Product toProduct(ProductImportRow row, Map<String, Long> categoryIds){
+        Product product = new Product();
+        product.setName(row.getName());
+        product.setPrice(row.getPrice());
+        product.setQuantity(row.getQuantity());
+        productService.validateProduct(product);
+
+        String categoryName = row.getCategory();
+        if(categoryName != null && !categoryName.isBlank()){
+            Long categoryId = categoryIds.get(categoryName);
+            if(categoryId == null){
+                categoryId = productService.findOrCreateCategory(categoryName).getId();
+                categoryIds.put(categoryName, categoryId);
+            }
+            Category category = new Category();
+            category.setId(categoryId);
+            product.setCategory(category);
+        }
+        return product;
+    }
+
+    private Map<String, Integer> readCsvHeader(String line){
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(line);
+        for(int i = 0; i < names.size(); i++){
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        for(String required : List.of("name", "price", "quantity")){
+            if(!columns.containsKey(required)){
+                throw new IllegalArgumentException("csv header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private ProductImportRow parseCsvRow(String line, Map<String, Integer> columns){
+        List<String> fields = splitCsv(line);
+        ProductImportRow row = new ProductImportRow();
+        row.setName(field(fields, columns.get("name")));
+        String price = field(fields, columns.get("price"));
+        String quantity = field(fields, columns.get("quantity"));
+        try{
+            row.setPrice(price == null ? null : Double.valueOf(price));
+            row.setQuantity(quantity == null ? null : Integer.valueOf(quantity));
+        }
+        catch(NumberFormatException e){
+            throw new IllegalArgumentException("price and quantity should be numbers");
+        }
+        row.setCategory(field(fields, columns.get("category")));
+        return row;
+    }
+
+    private String field(List<String> fields, Integer index){
+        if(index == null || index >= fields.size()){
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private List<String> splitCsv(String line){
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for(int i = 0; i < line.length(); i++){
+            char c = line.charAt(i);
+            if(quoted){
+                if(c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"'){
+                    current.append('"');
+                    i++;
+                }else if(c == '"'){
+                    quoted = false;
+                }else{
+                    current.append(c);
+                }
+            }else if(c == '"'){
+                quoted = true;
+            }else if(c == ','){
+                fields.add(current.toString());
+                current.setLength(0);
+            }else{
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private class ImportRun {
+        private long received;
+        private long imported;
+        private long failed;
+        private final List<ImportRowError> errors = new ArrayList<>();
+
+        private void fail(long line, String message){
+            failed++;
+            if(errors.size() < maxReportedErrors){
+                errors.add(new ImportRowError(line, message));
+            }
+        }
+    }
+}
@@ -1,15 +1,54 @@
 package com.bussiness.inventory.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.bussiness.inventory.annotation.ReplicaRead;
+import com.bussiness.inventory.cache.CategoryCache;
+import com.bussiness.inventory.cache.ProductCache;
+import com.bussiness.inventory.dto.CategorySummary;
+import com.bussiness.inventory.dto.ProductBatchResponse;
+import com.bussiness.inventory.dto.ProductPage;
+import com.bussiness.inventory.dto.ProductSearchResponse;
+import com.bussiness.inventory.dto.ProductSummary;
+import com.bussiness.inventory.dto.ProductSummaryPage;
+import com.bussiness.inventory.dto.StockAdjustmentRequest;
+import com.bussiness.inventory.dto.StockLevel;
+import com.bussiness.inventory.event.ProductChangeEvent;
+import com.bussiness.inventory.event.ProductSnapshot;
 import com.bussiness.inventory.model.Category;
 import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.repository.ProductJdbcRepository;
 import com.bussiness.inventory.repository.ProductRepository;
 import com.bussiness.inventory.repository.CategoryRepository;
+import com.bussiness.inventory.search.ProductSearchIndex;
+import com.bussiness.inventory.search.ProductSearchService;
+import com.bussiness.inventory.search.ProductSortedView;
+import com.bussiness.inventory.search.ProductSortedViewService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 public class ProductService {
@@ -20,118 +59,446 @@ public class ProductService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InventoryAggregateService inventoryAggregateService;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductSortedViewService productSortedViewService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.products.page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${inventory.products.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${inventory.search.max-offset:10000}")
+    private int maxSearchOffset;
+
+    @Value("${inventory.products.batch-get-max-ids:10000}")
+    private int maxBatchGetIds;
+
+    private static final String CURSOR_PREFIX = "id:";
+    private static final int ID_LOOKUP_BATCH = 1000;
+
     public List<Product> getAllProducts(){
         return productRepository.findAll();
     }
 
+    public ProductPage getProductPage(String cursor, Integer size){
+        int pageSize = resolvePageSize(size);
+        long afterId = decodeCursor(cursor);
+        List<ProductSummary> rows = productRepository.findPageAfter(afterId, Limit.of(pageSize + 1));
+        String nextCursor = null;
+        if(rows.size() > pageSize){
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            nextCursor = encodeCursor(rows.get(pageSize - 1).getId());
+        }
+        return new ProductPage(rows, pageSize, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamProducts(OutputStream out) throws IOException {
+        try(JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)){
+            generator.setRootValueSeparator(null);
+            productJdbcRepository.streamAll(rs -> {
+                try{
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", rs.getLong("id"));
+                    generator.writeStringField("name", rs.getString("name"));
+                    double price = rs.getDouble("price");
+                    if(rs.wasNull()){
+                        generator.writeNullField("price");
+                    }else{
+                        generator.writeNumberField("price", price);
+                    }
+                    int quantity = rs.getInt("quantity");
+                    if(rs.wasNull()){
+                        generator.writeNullField("quantity");
+                    }else{
+                        generator.writeNumberField("quantity", quantity);
+                    }
+                    long categoryId = rs.getLong("category_id");
+                    if(rs.wasNull()){
+                        generator.writeNullField("categoryId");
+                    }else{
+                        generator.writeNumberField("categoryId", categoryId);
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+                catch(IOException e){
+                    throw new RuntimeException("failed writing product stream", e);
+                }
+            });
+        }
+    }
+
+    // served from ProductCache; the product is a detached copy whose category carries only its id
     public Optional<Product> getProduct(Long id){
-        return productRepository.findById(id);
+        return productCache.get(id).map(this::toProduct);
+    }
+
+    // many products in one call: a single IN query per ID_LOOKUP_BATCH distinct ids, answered in request order
+    @Transactional(readOnly = true)
+    public ProductBatchResponse getProducts(List<Long> ids){
+        if(ids == null){
+            throw new IllegalArgumentException("ids are required");
+        }
+        if(ids.size() > maxBatchGetIds){
+            throw new IllegalArgumentException("at most " + maxBatchGetIds + " ids per request");
+        }
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids.size() * 2);
+        for(Long id : ids){
+            if(id == null){
+                throw new IllegalArgumentException("ids must not contain null");
+            }
+            distinct.add(id);
+        }
+        List<Long> requested = new ArrayList<>(distinct);
+        Map<Long, Product> found = new HashMap<>(requested.size() * 2);
+        for(int from = 0; from < requested.size(); from += ID_LOOKUP_BATCH){
+            List<Long> batch = requested.subList(from, Math.min(requested.size(), from + ID_LOOKUP_BATCH));
+            for(Product product : productRepository.findWithCategoryByIdIn(batch)){
+                found.put(product.getId(), product);
+            }
+        }
+        List<Product> products = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for(Long id : requested){
+            Product product = found.get(id);
+            if(product != null){
+                products.add(product);
+            }
+            else{
+                missing.add(id);
+            }
+        }
+        return new ProductBatchResponse(products, missing);
     }
  
-    public List<Product> searchProduct(String name){
-        return productRepository.searchByName(name);
+    @ReplicaRead
+    public ProductSearchResponse searchProduct(String name, Integer page, Integer size){
+        if(name == null || name.trim().isEmpty()){
+            throw new IllegalArgumentException("search text is required");
+        }
+        int pageSize = resolvePageSize(size);
+        int pageNumber = page == null ? 0 : page;
+        if(pageNumber < 0){
+            throw new IllegalArgumentException("page shouldn't be negetive");
+        }
+        // ranking keeps every hit up to the requested page in memory, so deep pages are refused
+        if((long) pageNumber * pageSize > maxSearchOffset){
+            throw new IllegalArgumentException("search results beyond the first " + maxSearchOffset + " can't be paged to; refine the search");
+        }
+        if(!productSearchService.isReady()){
+            Page<ProductSummary> result = productRepository.searchByName(name, PageRequest.of(pageNumber, pageSize));
+            return new ProductSearchResponse(name, pageNumber, pageSize, result.getTotalElements(), result.getContent());
+        }
+        ProductSearchIndex.SearchHits hits = productSearchService.search(name, pageNumber, pageSize);
+        return new ProductSearchResponse(name, pageNumber, pageSize, hits.total(), summariesInOrder(hits.productIds()));
     }
 
-    public List<Product> getProductsByPriceRange(Double minPrice, Double maxPrice){
+    // page and size are optional; without either the whole range is returned
+    @ReplicaRead
+    public ProductSummaryPage getProductsByPriceRange(Double minPrice, Double maxPrice, Integer page, Integer size){
         if(minPrice<0 || maxPrice<0){
             throw new IllegalArgumentException("min and max price should be greater than 0");
         }
         if(minPrice>maxPrice){
             throw new IllegalArgumentException("min price should always be less than max price");
         }
-        return productRepository.findByPriceRange(minPrice, maxPrice);
+        return rangePage(page, size,
+                (offset, limit) -> productSortedViewService.priceRange(minPrice, maxPrice, offset, limit),
+                pageable -> productRepository.findByPriceRange(minPrice, maxPrice, pageable));
     }
 
-    public List<Product> getLowStockProduct(Integer threshold){
+    @ReplicaRead
+    public ProductSummaryPage getLowStockProduct(Integer threshold, Integer page, Integer size){
         if(threshold<0){
             throw new IllegalArgumentException("Threshold shouldn't be negetive");
         }
-        List<Product> LowStockProducts = productRepository.findLowStockPrice(threshold);
-        if(!LowStockProducts.isEmpty()){
-            System.out.println(LowStockProducts.size() + " are low in stock");
-        }
-        return LowStockProducts;
+        // alerting on per-product thresholds is StockAlertService's job; this is a plain range query
+        return rangePage(page, size,
+                (offset, limit) -> productSortedViewService.quantityRange(Long.MIN_VALUE, threshold - 1L, offset, limit),
+                pageable -> productRepository.findLowStockPrice(threshold, pageable));
     }
 
-    public List<Product> getOutOfStockProducts(){
-        return productRepository.findOutOfStockProducts();
+    @ReplicaRead
+    public ProductSummaryPage getOutOfStockProducts(Integer page, Integer size){
+        return rangePage(page, size,
+                (offset, limit) -> productSortedViewService.quantityRange(0, 0, offset, limit),
+                pageable -> productRepository.findOutOfStockProducts(pageable));
     }
 
-    public List<Product> getPremiumStock(Double price){
+    // products whose price per unit exceeds price, highest unit value first. top returns just the first n
+    // rows and skips the count; otherwise page and size work as for the range endpoints
+    @ReplicaRead
+    public ProductSummaryPage getPremiumStock(Double price, Integer page, Integer size, Integer top){
          if(price<0){
             throw new IllegalArgumentException("price shouldn't be negetive");
          }
-         return productRepository.findPremiumStock(price);
+         if(top != null){
+            if(page != null || size != null){
+                throw new IllegalArgumentException("top can't be combined with page or size");
+            }
+            if(top < 1 || top > maxPageSize){
+                throw new IllegalArgumentException("top should be between 1 and " + maxPageSize);
+            }
+            List<ProductSummary> items = productRepository.findTopPremiumStock(price, Limit.of(top));
+            return new ProductSummaryPage(0, top, items.size(), items);
+         }
+         Pageable pageable = toPageable(page, size);
+         return toSummaryPage(pageable, productRepository.findPremiumStock(price, pageable));
     }
 
+    @ReplicaRead
     public Long getCount(){
+        if(inventoryAggregateService.isLoaded()){
+            return inventoryAggregateService.getInStockCount();
+        }
         return productRepository.countProductInStock();
     }
     
+    @ReplicaRead
     public Double totalInventory(){
+        if(inventoryAggregateService.isLoaded()){
+            return inventoryAggregateService.getTotalValue().doubleValue();
+        }
         return productRepository.getTotalInventory();
     }
 
     public Product createProduct(Product product){
         validateProduct(product);
-        return productRepository.save(product);
+        return created(productRepository.save(product));
     }
 
     public Product createProductWithCategory(Product product, Long categoryId){
                 validateProduct(product);
-                Category category = categoryRepository.findById(categoryId).orElseThrow(()-> new RuntimeException("category with Id not found: " + categoryId));
-                product.setCategory(category);
-                return productRepository.save(product);
+                CategorySummary category = categoryCache.findById(categoryId).orElseThrow(()-> new RuntimeException("category with Id not found: " + categoryId));
+                product.setCategory(categoryRepository.getReferenceById(category.getId()));
+                return created(productRepository.save(product));
             }
     public Product updateProduct(Long id, Product product){
         Product existingProduct = productRepository.findById(id)
                                 .orElseThrow(() -> new RuntimeException("product not found for id: " + id));
 
         validateProduct(existingProduct);
+        ProductSnapshot before = ProductSnapshot.of(existingProduct);
 
         existingProduct.setName(product.getName());
         existingProduct.setPrice(product.getPrice());
         existingProduct.setQuantity(product.getQuantity());
+        existingProduct.setReorderThreshold(product.getReorderThreshold());
 
         if(product.getCategory()!=null){
             Category category = categoryRepository.findById(id).orElseThrow(() -> new RuntimeException("category not found"));
         existingProduct.setCategory(category);
 }
-        return productRepository.save(existingProduct);
+        Product savedProduct = productRepository.save(existingProduct);
+        eventPublisher.publishEvent(ProductChangeEvent.updated(before, ProductSnapshot.of(savedProduct)));
+        return savedProduct;
     }
-    public void deleteProduct(Long id){
-        if(!productRepository.existsById(id)){
-            throw new RuntimeException("Product not found with id: " + id);
+    @Transactional
+    public StockLevel adjustStock(Long id, Integer delta){
+        if(delta == null){
+            throw new IllegalArgumentException("delta is required");
+        }
+        if(productRepository.adjustQuantity(id, delta) == 0){
+            Integer available = productRepository.findQuantityById(id)
+                                .orElseThrow(() -> new NoSuchElementException("product not found for id: " + id));
+            if(available != null && (long) available + delta > Integer.MAX_VALUE){
+                throw new IllegalArgumentException("adjusting product " + id + " by " + delta + " would take its quantity past " + Integer.MAX_VALUE);
+            }
+            throw new IllegalStateException("insufficient stock for product " + id + ": available " + available + ", requested " + (-delta));
+        }
+        // our update still holds the row lock, so this reads exactly the value we produced
+        ProductSnapshot after = productRepository.findSnapshotById(id)
+                                .orElseThrow(() -> new NoSuchElementException("product not found for id: " + id));
+        eventPublisher.publishEvent(ProductChangeEvent.stockChanged(after.withQuantity(after.quantity() - delta), after));
+        return new StockLevel(id, after.quantity());
+    }
+
+    @Transactional
+    public List<StockLevel> adjustStock(List<StockAdjustmentRequest> adjustments){
+        // merge repeated ids and apply in id order so concurrent batches always lock rows in the same order
+        TreeMap<Long, Integer> deltas = new TreeMap<>();
+        for(StockAdjustmentRequest adjustment : adjustments){
+            if(adjustment.getProductId() == null || adjustment.getDelta() == null){
+                throw new IllegalArgumentException("productId and delta are required");
+            }
+            deltas.merge(adjustment.getProductId(), adjustment.getDelta(), (merged, delta) -> {
+                long sum = (long) merged + delta;
+                if(sum != (int) sum){
+                    throw new IllegalArgumentException("deltas for product " + adjustment.getProductId() + " add up to more than a quantity can hold");
+                }
+                return (int) sum;
+            });
         }
-        productRepository.deleteById(id);
+        List<StockLevel> levels = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> levels.add(adjustStock(id, delta)));
+        return levels;
+    }
+
+    public void deleteProduct(Long id){
+        Product product = productRepository.findById(id)
+                                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangeEvent.deleted(ProductSnapshot.of(product)));
     }
 
-    public List<Product> getProductByCategoryId(Long id){
-           List<Product> product = productRepository.findByCategoryId(id);
+    public List<ProductSummary> getProductByCategoryId(Long id){
+           List<ProductSummary> product = productRepository.findByCategoryId(id);
            return product;
     }
 
     public Product assignCategoryToProduct(Long productId, Long categoryId){
         Product product = productRepository.findById(productId).orElseThrow(()-> new RuntimeException("product with id: " + productId + " not found"));
-        Category category = categoryRepository.findById(categoryId).orElseThrow(()-> new RuntimeException("category with id: " + categoryId + " not found"));
-        product.setCategory(category);
-        return productRepository.save(product);
+        CategorySummary category = categoryCache.findById(categoryId).orElseThrow(()-> new RuntimeException("category with id: " + categoryId + " not found"));
+        ProductSnapshot before = ProductSnapshot.of(product);
+        product.setCategory(categoryRepository.getReferenceById(category.getId()));
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangeEvent.updated(before, ProductSnapshot.of(savedProduct)));
+        return savedProduct;
     }
 
     public Product createProductWithCategoryName(Product product, String categoryName){
         validateProduct(product);
-        Category category = categoryRepository.findByName(categoryName).orElseGet(() -> {
-
-            Category newCategory = new Category();
-            newCategory.setName(categoryName);
-            newCategory.setDescription("auto generated description for : "+ categoryName);
-            return categoryRepository.save(newCategory);
-        });
+        Category category = findOrCreateCategory(categoryName);
 
         product.setCategory(category);
-        return productRepository.save(product);
+        return created(productRepository.save(product));
+    }
+    // safe to call concurrently for the same new name, see CategoryCache.getOrCreate
+    Category findOrCreateCategory(String categoryName){
+        CategorySummary category = categoryCache.getOrCreate(categoryName, "auto generated description for : "+ categoryName);
+        // products only need the foreign key; the reference is a proxy that loads the row only if it is read
+        return categoryRepository.getReferenceById(category.getId());
+    }
+
+    private Product toProduct(ProductSnapshot snapshot){
+        Product product = new Product();
+        product.setId(snapshot.id());
+        product.setName(snapshot.name());
+        product.setPrice(snapshot.price());
+        product.setQuantity(snapshot.quantity());
+        product.setReorderThreshold(snapshot.reorderThreshold());
+        product.setUnitValue(Product.unitValueOf(snapshot.price(), snapshot.quantity()));
+        product.setVersion(snapshot.version());
+        if(snapshot.categoryId() != null){
+            product.setCategory(categoryRepository.getReferenceById(snapshot.categoryId()));
+        }
+        return product;
+    }
+
+    private Product created(Product product){
+        eventPublisher.publishEvent(ProductChangeEvent.created(ProductSnapshot.of(product)));
+        return product;
+    }
+
+    // answered from the in-memory sorted view once it has loaded, otherwise by the indexed database query
+    private ProductSummaryPage rangePage(Integer page, Integer size,
+                                         BiFunction<Integer, Integer, ProductSortedView.Slice> fromView,
+                                         Function<Pageable, Page<ProductSummary>> fromDatabase){
+        Pageable pageable = toPageable(page, size);
+        if(productSortedViewService.isReady()){
+            ProductSortedView.Slice slice = pageable.isPaged()
+                    ? fromView.apply((int) pageable.getOffset(), pageable.getPageSize())
+                    : fromView.apply(0, Integer.MAX_VALUE);
+            List<ProductSummary> items = summariesInOrder(slice.productIds());
+            int pageNumber = pageable.isPaged() ? pageable.getPageNumber() : 0;
+            return new ProductSummaryPage(pageNumber, pageable.isPaged() ? pageable.getPageSize() : items.size(), slice.total(), items);
+        }
+        return toSummaryPage(pageable, fromDatabase.apply(pageable));
     }
-    private void validateProduct(Product product){
+
+    // page and size are optional; without either the request is unpaged
+    private Pageable toPageable(Integer page, Integer size){
+        if(page == null && size == null){
+            return Pageable.unpaged();
+        }
+        int pageNumber = page == null ? 0 : page;
+        if(pageNumber < 0){
+            throw new IllegalArgumentException("page shouldn't be negetive");
+        }
+        return PageRequest.of(pageNumber, resolvePageSize(size));
+    }
+
+    private ProductSummaryPage toSummaryPage(Pageable pageable, Page<ProductSummary> result){
+        int pageNumber = pageable.isPaged() ? pageable.getPageNumber() : 0;
+        return new ProductSummaryPage(pageNumber, pageable.isPaged() ? pageable.getPageSize() : result.getNumberOfElements(),
+                result.getTotalElements(), result.getContent());
+    }
+
+    // loads summaries for ids coming from an in-memory index, keeping the index's order
+    private List<ProductSummary> summariesInOrder(List<Long> ids){
+        Map<Long, ProductSummary> found = new HashMap<>();
+        for(int from = 0; from < ids.size(); from += ID_LOOKUP_BATCH){
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + ID_LOOKUP_BATCH));
+            for(ProductSummary product : productJdbcRepository.findSummariesByIds(batch)){
+                found.put(product.getId(), product);
+            }
+        }
+        List<ProductSummary> ordered = new ArrayList<>(ids.size());
+        for(Long id : ids){
+            ProductSummary product = found.get(id);
+            if(product != null){
+                ordered.add(product);
+            }
+        }
+        return ordered;
+    }
+
+    private int resolvePageSize(Integer size){
+        if(size == null){
+            return defaultPageSize;
+        }
+        if(size < 1 || size > maxPageSize){
+            throw new IllegalArgumentException("page size should be between 1 and " + maxPageSize);
+        }
+        return size;
+    }
+
+    private String encodeCursor(Long lastId){
+        byte[] raw = (CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    private long decodeCursor(String cursor){
+        if(cursor == null || cursor.isEmpty()){
+            return 0L;
+        }
+        try{
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if(!raw.startsWith(CURSOR_PREFIX)){
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            return Long.parseLong(raw.substring(CURSOR_PREFIX.length()));
+        }
+        catch(IllegalArgumentException e){
+            throw new IllegalArgumentException("invalid cursor");
+        }
+    }
+
+    void validateProduct(Product product){
         if(product.getName()==null || product.getName().trim().isEmpty()){
             throw new IllegalArgumentException("product name is required");
         }
@@ -0,0 +1,235 @@
+package com.bussiness.inventory.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bussiness.inventory.alert.StockAlert;
+import com.bussiness.inventory.alert.StockAlertSink;
+import com.bussiness.inventory.cache.CategoryCache;
+import com.bussiness.inventory.dto.CategorySummary;
+import com.bussiness.inventory.event.CategoryChangeEvent;
+import com.bussiness.inventory.event.ProductChangeEvent;
+import com.bussiness.inventory.event.ProductSnapshot;
+import com.bussiness.inventory.repository.ProductRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Open low-stock and out-of-stock alerts, kept current from committed product changes instead of rescans.
+ * A product is low when its quantity drops below its reorder threshold (its own, else its category's, else
+ * {@code inventory.alerts.default-threshold}) and out of stock at zero. Only transitions reach the
+ * {@link StockAlertSink}s: raising an alert, moving between low and out of stock, and RESTOCKED when it clears.
+ * The open set is seeded from the database once at startup.
+ */
+@Service
+public class StockAlertService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockAlertService.class);
+    private static final int INITIAL_LOAD_ATTEMPTS = 5;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private List<StockAlertSink> sinks;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.alerts.default-threshold:10}")
+    private int defaultThreshold;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // open alerts by product id; products without an entry are at or above their threshold
+    private final TreeMap<Long, StockAlert> alerts = new TreeMap<>();
+    private final Map<Long, Integer> categoryThresholds = new HashMap<>();
+    private long changeCount;
+    private volatile boolean loaded;
+
+    // ordered by product id; the cost is the number of open alerts, not the number of products
+    public List<StockAlert> getAlerts(){
+        lock.lock();
+        try{
+            return new ArrayList<>(alerts.values());
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event){
+        lock.lock();
+        try{
+            changeCount++;
+            if(event.after() == null){
+                // a deleted product has nothing left to reorder
+                alerts.remove(event.productId());
+                return;
+            }
+            evaluate(event.after());
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChange(CategoryChangeEvent event){
+        lock.lock();
+        try{
+            changeCount++;
+            Integer threshold = event.reorderThreshold();
+            Integer previous = threshold == null ? categoryThresholds.remove(event.categoryId())
+                    : categoryThresholds.put(event.categoryId(), threshold);
+            if(event.type() == CategoryChangeEvent.Type.DELETED || Objects.equals(previous, threshold)){
+                return;
+            }
+        }
+        finally{
+            lock.unlock();
+        }
+        // a changed category threshold moves every product that inherits it; rare, so these are re-read
+        for(ProductSnapshot product : productRepository.findInheritingReorderThreshold(event.categoryId())){
+            lock.lock();
+            try{
+                evaluate(product);
+            }
+            finally{
+                lock.unlock();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialLoad(){
+        for(int attempt = 1; attempt <= INITIAL_LOAD_ATTEMPTS && !loaded; attempt++){
+            load();
+        }
+        if(!loaded){
+            logger.warn("open stock alerts could not be seeded, only changes from now on will raise alerts");
+        }
+    }
+
+    // same scheme as the inventory aggregates: the scan is discarded if anything changed while it ran
+    private void load(){
+        long changesBefore;
+        lock.lock();
+        try{
+            changesBefore = changeCount;
+        }
+        finally{
+            lock.unlock();
+        }
+
+        Map<Long, Integer> thresholds = new HashMap<>();
+        for(CategorySummary category : categoryCache.all()){
+            if(category.getReorderThreshold() != null){
+                thresholds.put(category.getId(), category.getReorderThreshold());
+            }
+        }
+        List<ProductSnapshot> below = productRepository.findBelowReorderThreshold(defaultThreshold);
+
+        lock.lock();
+        try{
+            if(changeCount != changesBefore){
+                return;
+            }
+            categoryThresholds.clear();
+            categoryThresholds.putAll(thresholds);
+            alerts.clear();
+            long now = System.currentTimeMillis();
+            for(ProductSnapshot product : below){
+                StockAlert.Type type = levelOf(product.quantity(), thresholdOf(product));
+                if(type != null){
+                    alerts.put(product.id(), alert(type, product, now));
+                }
+            }
+            loaded = true;
+            logger.info("stock alerts seeded: {} products below their reorder threshold", alerts.size());
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    // caller holds the lock
+    private void evaluate(ProductSnapshot product){
+        StockAlert open = alerts.get(product.id());
+        if(open != null && open.version() != null && product.version() != null && product.version() < open.version()){
+            // a commit notification that arrived after a newer one for the same product
+            return;
+        }
+        StockAlert.Type type = levelOf(product.quantity(), thresholdOf(product));
+        long now = System.currentTimeMillis();
+        if(type == null){
+            if(open != null){
+                alerts.remove(product.id());
+                publish(alert(StockAlert.Type.RESTOCKED, product, now));
+            }
+            return;
+        }
+        if(open != null && open.type() == type){
+            // still in the same state: keep the figures current without alerting again
+            alerts.put(product.id(), alert(type, product, open.timestamp()));
+            return;
+        }
+        StockAlert raised = alert(type, product, now);
+        alerts.put(product.id(), raised);
+        publish(raised);
+    }
+
+    private void publish(StockAlert alert){
+        meterRegistry.counter("inventory.stock.alerts", "type", alert.type().name()).increment();
+        for(StockAlertSink sink : sinks){
+            try{
+                sink.publish(alert);
+            }
+            catch(RuntimeException e){
+                logger.warn("stock alert sink {} failed for product {}: {}", sink.getClass().getSimpleName(),
+                        alert.productId(), e.getMessage());
+            }
+        }
+    }
+
+    private StockAlert alert(StockAlert.Type type, ProductSnapshot product, long timestamp){
+        return new StockAlert(type, product.id(), product.name(), product.quantity(), thresholdOf(product),
+                product.categoryId(), product.version(), timestamp);
+    }
+
+    private int thresholdOf(ProductSnapshot product){
+        if(product.reorderThreshold() != null){
+            return product.reorderThreshold();
+        }
+        Integer categoryThreshold = product.categoryId() != null ? categoryThresholds.get(product.categoryId()) : null;
+        return categoryThreshold != null ? categoryThreshold : defaultThreshold;
+    }
+
+    // null when the product needs no alert
+    private static StockAlert.Type levelOf(Integer quantity, int threshold){
+        if(quantity == null){
+            return null;
+        }
+        if(quantity <= 0){
+            return StockAlert.Type.OUT_OF_STOCK;
+        }
+        return quantity < threshold ? StockAlert.Type.LOW_STOCK : null;
+    }
+}
@@ -0,0 +1,200 @@
+package com.bussiness.inventory.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bussiness.inventory.dto.BulkStockUpdateResponse;
+import com.bussiness.inventory.dto.StockUpdateRequest;
+import com.bussiness.inventory.dto.StockUpdateResult;
+import com.bussiness.inventory.event.ProductChangeEvent;
+import com.bussiness.inventory.event.ProductSnapshot;
+import com.bussiness.inventory.repository.ProductJdbcRepository;
+
+/**
+ * Applies large sets of stock corrections, such as warehouse cycle counts. Items are sorted by product id and
+ * split into transactions of at most {@code batchSize} products. Each transaction locks its rows in id
+ * order, works out the new quantities in memory and writes them in one JDBC batch. Items for the same product
+ * apply in request order. An item that would take stock below zero is rejected on its own; the rest of its
+ * transaction still commits. Each changed product publishes one STOCK_CHANGED event, like a single adjustment.
+ */
+@Service
+public class StockUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockUpdateService.class);
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.stock.bulk-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${inventory.stock.bulk-max-items:200000}")
+    private int maxItems;
+
+    public BulkStockUpdateResponse update(List<StockUpdateRequest> updates){
+        if(updates == null){
+            throw new IllegalArgumentException("stock updates are required");
+        }
+        if(updates.size() > maxItems){
+            throw new IllegalArgumentException("at most " + maxItems + " stock updates per request");
+        }
+        long start = System.nanoTime();
+        StockUpdateResult[] results = new StockUpdateResult[updates.size()];
+        List<Integer> valid = new ArrayList<>(updates.size());
+        for(int i = 0; i < updates.size(); i++){
+            String problem = validate(updates.get(i));
+            if(problem != null){
+                results[i] = new StockUpdateResult(updates.get(i) == null ? null : updates.get(i).getProductId(),
+                        StockUpdateResult.Status.INVALID, null, problem);
+            }
+            else{
+                valid.add(i);
+            }
+        }
+        // stable, so items for one product keep their request order
+        valid.sort(Comparator.comparing(i -> updates.get(i).getProductId()));
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int transactions = 0;
+        int from = 0;
+        while(from < valid.size()){
+            int to = chunkEnd(updates, valid, from);
+            List<Integer> chunk = valid.subList(from, to);
+            try{
+                Map<Integer, StockUpdateResult> applied = transactionTemplate.execute(status -> apply(updates, chunk));
+                applied.forEach((index, result) -> results[index] = result);
+            }
+            catch(DataAccessException e){
+                String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                for(int index : chunk){
+                    results[index] = new StockUpdateResult(updates.get(index).getProductId(), StockUpdateResult.Status.FAILED, null, message);
+                }
+            }
+            transactions++;
+            from = to;
+        }
+
+        long updated = Arrays.stream(results).filter(result -> result.getStatus() == StockUpdateResult.Status.UPDATED).count();
+        long elapsedNanos = System.nanoTime() - start;
+        long elapsedMs = elapsedNanos / 1_000_000;
+        double itemsPerSecond = elapsedNanos > 0 ? updates.size() * 1_000_000_000d / elapsedNanos : 0;
+        logger.info("bulk stock update finished: {} applied, {} rejected in {} transactions, {} ms ({} items/sec)",
+                updated, results.length - updated, transactions, elapsedMs, Math.round(itemsPerSecond));
+        return new BulkStockUpdateResponse(updates.size(), updated, results.length - updated, Arrays.asList(results),
+                transactions, elapsedMs, itemsPerSecond);
+    }
+
+    // the chunk ends after batchSize distinct products, never between two items for the same product
+    private int chunkEnd(List<StockUpdateRequest> updates, List<Integer> sorted, int from){
+        int products = 0;
+        Long previous = null;
+        int to = from;
+        while(to < sorted.size()){
+            Long productId = updates.get(sorted.get(to)).getProductId();
+            if(!productId.equals(previous)){
+                if(products == batchSize){
+                    break;
+                }
+                products++;
+                previous = productId;
+            }
+            to++;
+        }
+        return to;
+    }
+
+    // runs inside the chunk's transaction; the events are delivered once it commits
+    private Map<Integer, StockUpdateResult> apply(List<StockUpdateRequest> updates, List<Integer> chunk){
+        List<Long> ids = new ArrayList<>();
+        for(int index : chunk){
+            Long productId = updates.get(index).getProductId();
+            if(ids.isEmpty() || !ids.get(ids.size() - 1).equals(productId)){
+                ids.add(productId);
+            }
+        }
+        Map<Long, ProductSnapshot> before = new HashMap<>(ids.size() * 2);
+        for(ProductSnapshot product : productJdbcRepository.lockForStockUpdate(ids)){
+            before.put(product.id(), product);
+        }
+
+        Map<Integer, StockUpdateResult> results = new HashMap<>(chunk.size() * 2);
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for(int index : chunk){
+            StockUpdateRequest update = updates.get(index);
+            ProductSnapshot product = before.get(update.getProductId());
+            if(product == null){
+                results.put(index, new StockUpdateResult(update.getProductId(), StockUpdateResult.Status.NOT_FOUND, null,
+                        "product not found for id: " + update.getProductId()));
+                continue;
+            }
+            int current = quantities.getOrDefault(product.id(), product.quantity() == null ? 0 : product.quantity());
+            long next = update.getQuantity() != null ? update.getQuantity() : (long) current + update.getDelta();
+            if(next > Integer.MAX_VALUE){
+                results.put(index, new StockUpdateResult(product.id(), StockUpdateResult.Status.INVALID, current,
+                        "quantity for product " + product.id() + " would exceed " + Integer.MAX_VALUE));
+                continue;
+            }
+            if(next < 0){
+                results.put(index, new StockUpdateResult(product.id(), StockUpdateResult.Status.INSUFFICIENT_STOCK, current,
+                        "insufficient stock for product " + product.id() + ": available " + current + ", requested " + (-update.getDelta())));
+                continue;
+            }
+            quantities.put(product.id(), (int) next);
+            results.put(index, new StockUpdateResult(product.id(), StockUpdateResult.Status.UPDATED, (int) next, null));
+        }
+
+        List<ProductSnapshot> changed = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> {
+            ProductSnapshot product = before.get(id);
+            if(!quantity.equals(product.quantity())){
+                changed.add(product.withQuantity(quantity));
+            }
+        });
+        if(!changed.isEmpty()){
+            productJdbcRepository.batchUpdateStock(changed);
+        }
+        for(ProductSnapshot after : changed){
+            ProductSnapshot previous = before.get(after.id());
+            Long version = previous.version() == null ? null : previous.version() + 1;
+            eventPublisher.publishEvent(ProductChangeEvent.stockChanged(previous, new ProductSnapshot(after.id(), after.name(),
+                    after.price(), after.quantity(), after.categoryId(), version, after.reorderThreshold())));
+        }
+        return results;
+    }
+
+    // null when the item can be applied
+    private static String validate(StockUpdateRequest update){
+        if(update == null || update.getProductId() == null){
+            return "productId is required";
+        }
+        if((update.getDelta() == null) == (update.getQuantity() == null)){
+            return "exactly one of delta and quantity is required";
+        }
+        if(update.getQuantity() != null && update.getQuantity() < 0){
+            return "quantity should not be negative";
+        }
+        return null;
+    }
+}
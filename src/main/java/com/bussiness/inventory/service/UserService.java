@@ -2,6 +2,7 @@ package com.bussiness.inventory.service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.bussiness.inventory.dto.LoginRequest;
 import com.bussiness.inventory.util.JwtUtil;
@@ -15,6 +16,7 @@ import com.bussiness.inventory.dto.SignupResponse;
 import com.bussiness.inventory.dto.LoginResponse;
 import com.bussiness.inventory.model.User;
 import com.bussiness.inventory.repository.UserRepository;
+import com.bussiness.inventory.security.PasswordHasher;
 import com.bussiness.inventory.util.EncryptionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +34,10 @@ public class UserService {
     private PasswordEncoder passwordEncoder;
     @Autowired
     private JwtUtil jwtUtil;
+    @Autowired
+    private PasswordHasher passwordHasher;
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
@@ -110,16 +116,16 @@ public class UserService {
            return passwordEncoder.matches(rawPassword, encodedPassword);
     }
 
-    @Transactional
+    // written behind by LastLoginRecorder; an unknown id simply updates no row
     public void updateLastLogin(Long userId){
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("user not found"));
-        user.setLastlogin(LocalDateTime.now());
-        userRepository.save(user);
+        lastLoginRecorder.record(userId, LocalDateTime.now());
     }
 
 // --------------   Login ---------------------
 
-    public LoginResponse login(LoginRequest request){
+    // the user lookup runs on the calling thread; BCrypt and everything after it run on a hashing thread.
+    // throws RejectedExecutionException when too many password checks are already waiting
+    public CompletableFuture<LoginResponse> login(LoginRequest request){
         if(request.getUsername() ==null || request.getUsername().trim().isEmpty()){
             throw new IllegalArgumentException("username is required");
         }
@@ -127,22 +133,22 @@ public class UserService {
             throw new IllegalArgumentException("password is required");
         }
        User user = userRepository.findByUsername(request.getUsername()).orElseThrow(() -> new RuntimeException("user not found"));
-       if(!passwordEncoder.matches(request.getPassword(), user.getPassword())){
-           throw new RuntimeException("Invalid password");
-        }
-       user.setLastlogin(LocalDateTime.now());
-       userRepository.save(user);
-       String token = jwtUtil.generateToken(user.getUsername(), user.getRole(), user.getId());
-
-        logger.info("✅ User logged in successfully: {}", user.getUsername());
-        logger.debug("🔑 Generated token : {}...", token.substring(0, 20));
+       return passwordHasher.matches(request.getPassword(), user.getPassword()).thenApply(matches -> {
+           if(!matches){
+               throw new RuntimeException("Invalid password");
+           }
+           lastLoginRecorder.record(user.getId(), LocalDateTime.now());
+           String token = jwtUtil.generateToken(user.getUsername(), user.getRole(), user.getId());
 
-        return new LoginResponse(
-                token,
-                user.getId(),
-                user.getUsername(),
-                user.getRole()
-        );
+           logger.info("✅ User logged in successfully: {}", user.getUsername());
+           logger.debug("🔑 Generated token : {}...", token.substring(0, 20));
 
+           return new LoginResponse(
+                   token,
+                   user.getId(),
+                   user.getUsername(),
+                   user.getRole()
+           );
+       });
     }
 }
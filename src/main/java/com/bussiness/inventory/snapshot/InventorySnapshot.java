@@ -0,0 +1,177 @@
+package com.bussiness.inventory.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A product snapshot file mapped into memory. The file is columnar and little-endian, rows in ascending id
+ * order:
+ * <pre>
+ * header        64 bytes: "INVSNAP1", format version (int), header size (int), rows (long),
+ *               name bytes (long), created at (epoch ms, long), change feed sequence (long), padding
+ * ids           long per row
+ * prices        double per row, NaN when the product has no price
+ * category ids  long per row, {@link #NO_CATEGORY} when uncategorized
+ * quantities    int per row, {@link #NO_QUANTITY} when unknown
+ * name offsets  int per row plus one; row i's UTF-8 name is bytes [offset(i), offset(i + 1)) of the names
+ * names         UTF-8 bytes, a missing name is stored as empty
+ * </pre>
+ * The change feed sequence was read before the rows were, so replaying {@code /api/products/changes} from it
+ * brings the snapshot up to date (some of those changes may already be included).
+ * Accessors read the mapping directly and allocate nothing, except {@link #name}. Instances are safe for
+ * concurrent readers. A mapping is released when the instance is garbage collected.
+ */
+public final class InventorySnapshot {
+
+    public static final long NO_CATEGORY = 0;
+    public static final int NO_QUANTITY = Integer.MIN_VALUE;
+
+    static final byte[] MAGIC = "INVSNAP1".getBytes(StandardCharsets.US_ASCII);
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 64;
+
+    private final int rows;
+    private final long createdAt;
+    private final long changeSequence;
+    private final long fileBytes;
+    private final LongBuffer ids;
+    private final DoubleBuffer prices;
+    private final LongBuffer categoryIds;
+    private final IntBuffer quantities;
+    private final IntBuffer nameOffsets;
+    private final ByteBuffer names;
+
+    private InventorySnapshot(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            // a file shorter than the header is rejected below
+            if (channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        byte[] magic = new byte[MAGIC.length];
+        header.get(0, magic);
+        if (header.hasRemaining() || !Arrays.equals(magic, MAGIC)) {
+            throw new IOException("not an inventory snapshot");
+        }
+        if (header.getInt(8) != FORMAT_VERSION || header.getInt(12) != HEADER_BYTES) {
+            throw new IOException("unsupported snapshot format " + header.getInt(8));
+        }
+        long rowCount = header.getLong(16);
+        long nameBytes = header.getLong(24);
+        if (rowCount < 0 || rowCount > Integer.MAX_VALUE / Long.BYTES || nameBytes < 0 || nameBytes > Integer.MAX_VALUE) {
+            throw new IOException("snapshot of " + rowCount + " rows and " + nameBytes + " name bytes cannot be mapped");
+        }
+        rows = (int) rowCount;
+        createdAt = header.getLong(32);
+        changeSequence = header.getLong(40);
+        fileBytes = sizeOf(rows, nameBytes);
+        if (channel.size() != fileBytes) {
+            throw new IOException("snapshot is " + channel.size() + " bytes, expected " + fileBytes);
+        }
+        long position = HEADER_BYTES;
+        ids = map(channel, position, (long) rows * Long.BYTES).asLongBuffer();
+        position += (long) rows * Long.BYTES;
+        prices = map(channel, position, (long) rows * Double.BYTES).asDoubleBuffer();
+        position += (long) rows * Double.BYTES;
+        categoryIds = map(channel, position, (long) rows * Long.BYTES).asLongBuffer();
+        position += (long) rows * Long.BYTES;
+        quantities = map(channel, position, (long) rows * Integer.BYTES).asIntBuffer();
+        position += (long) rows * Integer.BYTES;
+        nameOffsets = map(channel, position, (rows + 1L) * Integer.BYTES).asIntBuffer();
+        position += (rows + 1L) * Integer.BYTES;
+        names = map(channel, position, nameBytes);
+    }
+
+    public static InventorySnapshot open(Path file) throws IOException {
+        // the mappings stay valid once the channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new InventorySnapshot(channel);
+        }
+    }
+
+    static long sizeOf(long rows, long nameBytes) {
+        return HEADER_BYTES + rows * (Long.BYTES + Double.BYTES + Long.BYTES + Integer.BYTES) + (rows + 1) * Integer.BYTES + nameBytes;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public long createdAt() {
+        return createdAt;
+    }
+
+    public long changeSequence() {
+        return changeSequence;
+    }
+
+    public long fileBytes() {
+        return fileBytes;
+    }
+
+    public long id(int row) {
+        return ids.get(row);
+    }
+
+    public double price(int row) {
+        return prices.get(row);
+    }
+
+    public long categoryId(int row) {
+        return categoryIds.get(row);
+    }
+
+    public int quantity(int row) {
+        return quantities.get(row);
+    }
+
+    public int nameLength(int row) {
+        return nameOffsets.get(row + 1) - nameOffsets.get(row);
+    }
+
+    // copies the UTF-8 name into target, which must hold nameLength(row) bytes; returns the length
+    public int copyName(int row, byte[] target) {
+        int offset = nameOffsets.get(row);
+        int length = nameOffsets.get(row + 1) - offset;
+        names.get(offset, target, 0, length);
+        return length;
+    }
+
+    public String name(int row) {
+        byte[] name = new byte[nameLength(row)];
+        copyName(row, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    // rows are in id order, so a lookup is a binary search over the id column; -1 when absent
+    public int rowOf(long id) {
+        int low = 0;
+        int high = rows - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = ids.get(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
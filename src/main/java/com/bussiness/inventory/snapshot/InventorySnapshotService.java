@@ -0,0 +1,257 @@
+package com.bussiness.inventory.snapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bussiness.inventory.dto.SnapshotInfo;
+import com.bussiness.inventory.event.ChangeFeed;
+import com.bussiness.inventory.repository.ProductJdbcRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Exports the catalog to an {@link InventorySnapshot} file on a schedule and on demand. Rows are streamed
+ * from the database in id order inside one read-only transaction and spooled column by column, so the heap
+ * use does not depend on the catalog size. Every export gets a new file name and replaces the
+ * current snapshot atomically; the previous {@code inventory.snapshot.keep} files are kept so that
+ * downloads still reading them can finish. Exports run one at a time. The first one starts in the background
+ * once the application is ready, after files left by earlier runs beyond {@code keep} and interrupted
+ * {@code .partial} files are removed; until it completes there is no current snapshot.
+ */
+@Service
+public class InventorySnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventorySnapshotService.class);
+    // products-<createdAt>-<export number>.snap
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("products-(\\d+)-(\\d+)\\.snap");
+
+    public record SnapshotFile(Path path, SnapshotInfo info) {
+    }
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Value("${inventory.snapshot.directory:${java.io.tmpdir}/inventory-snapshots}")
+    private String directory;
+
+    @Value("${inventory.snapshot.keep:2}")
+    private int keep;
+
+    private volatile SnapshotFile current;
+    // files this instance wrote, oldest first; guarded by exportLock like exports
+    private final Deque<Path> written = new ArrayDeque<>();
+    private long exports;
+    private final ReentrantLock exportLock = new ReentrantLock();
+    private final AtomicBoolean exportQueued = new AtomicBoolean();
+    private final ExecutorService exporter = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "snapshot-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepare(){
+        exportLock.lock();
+        try{
+            written.addAll(removeStaleFiles(Paths.get(directory), keep));
+        }
+        catch(IOException e){
+            logger.warn("cleaning up old inventory snapshots failed: {}", e.getMessage());
+        }
+        finally{
+            exportLock.unlock();
+        }
+        requestExport();
+    }
+
+    @PreDestroy
+    void shutdown(){
+        exporter.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.snapshot.interval-ms:3600000}",
+               initialDelayString = "${inventory.snapshot.interval-ms:3600000}")
+    public void scheduledExport(){
+        try{
+            export();
+        }
+        catch(IOException | DataAccessException e){
+            logger.warn("scheduled inventory snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    public SnapshotInfo export() throws IOException {
+        exportLock.lock();
+        try{
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            long start = System.nanoTime();
+            long createdAt = System.currentTimeMillis();
+            // read before the rows, so replaying the feed from here can only repeat changes, never miss them
+            long sequence = changeFeed.latestSequence();
+            Path file = dir.resolve("products-" + createdAt + "-" + (++exports) + ".snap");
+            Path partial = dir.resolve(file.getFileName() + ".partial");
+            long bytes;
+            long rows;
+            try(InventorySnapshotWriter writer = new InventorySnapshotWriter(partial)){
+                TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                readOnly.setReadOnly(true);
+                readOnly.executeWithoutResult(status -> productJdbcRepository.streamAll(rs -> {
+                    double price = rs.getDouble("price");
+                    if(rs.wasNull()){
+                        price = Double.NaN;
+                    }
+                    long categoryId = rs.getLong("category_id");
+                    if(rs.wasNull()){
+                        categoryId = InventorySnapshot.NO_CATEGORY;
+                    }
+                    int quantity = rs.getInt("quantity");
+                    if(rs.wasNull()){
+                        quantity = InventorySnapshot.NO_QUANTITY;
+                    }
+                    try{
+                        writer.add(rs.getLong("id"), rs.getString("name"), price, categoryId, quantity);
+                    }
+                    catch(IOException e){
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                rows = writer.rows();
+                bytes = writer.finish(createdAt, sequence);
+            }
+            catch(UncheckedIOException e){
+                Files.deleteIfExists(partial);
+                throw e.getCause();
+            }
+            catch(IOException | RuntimeException e){
+                Files.deleteIfExists(partial);
+                throw e;
+            }
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            SnapshotInfo info = new SnapshotInfo(rows, bytes, createdAt, sequence, elapsedMs);
+            current = new SnapshotFile(file, info);
+            written.addLast(file);
+            while(written.size() > keep + 1){
+                Files.deleteIfExists(written.removeFirst());
+            }
+            logger.info("inventory snapshot exported: {} products, {} bytes in {} ms", rows, bytes, elapsedMs);
+            return info;
+        }
+        finally{
+            exportLock.unlock();
+        }
+    }
+
+    // the latest snapshot, or null while the first export is still running; a failed one is retried from here
+    public SnapshotFile current(){
+        SnapshotFile snapshot = current;
+        if(snapshot == null){
+            requestExport();
+        }
+        return snapshot;
+    }
+
+    private void requestExport(){
+        if(!exportQueued.compareAndSet(false, true)){
+            return;
+        }
+        try{
+            exporter.execute(() -> {
+                try{
+                    export();
+                }
+                catch(IOException | DataAccessException e){
+                    logger.warn("inventory snapshot export failed: {}", e.getMessage());
+                }
+                finally{
+                    exportQueued.set(false);
+                }
+            });
+        }
+        catch(RejectedExecutionException e){
+            // shutting down
+            exportQueued.set(false);
+        }
+    }
+
+    // deletes interrupted exports and all but the newest keep snapshots in dir; returns those, oldest first
+    static List<Path> removeStaleFiles(Path dir, int keep) throws IOException {
+        if(!Files.isDirectory(dir)){
+            return List.of();
+        }
+        List<Path> snapshots = new ArrayList<>();
+        try(Stream<Path> files = Files.list(dir)){
+            for(Path file : (Iterable<Path>) files::iterator){
+                String name = file.getFileName().toString();
+                if(name.endsWith(".partial")){
+                    Files.deleteIfExists(file);
+                }
+                else if(SNAPSHOT_NAME.matcher(name).matches()){
+                    snapshots.add(file);
+                }
+            }
+        }
+        snapshots.sort(Comparator.comparingLong((Path file) -> nameNumber(file, 1)).thenComparingLong(file -> nameNumber(file, 2)));
+        int stale = Math.max(0, snapshots.size() - keep);
+        for(Path file : snapshots.subList(0, stale)){
+            Files.deleteIfExists(file);
+        }
+        return List.copyOf(snapshots.subList(stale, snapshots.size()));
+    }
+
+    private static long nameNumber(Path file, int group){
+        Matcher matcher = SNAPSHOT_NAME.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(group)) : 0;
+    }
+
+    // for servlet containers without sendfile: the file is still copied with transferTo rather than through the heap
+    public void transferTo(SnapshotFile snapshot, WritableByteChannel out) throws IOException {
+        try(FileChannel channel = FileChannel.open(snapshot.path(), StandardOpenOption.READ)){
+            long size = channel.size();
+            long position = 0;
+            while(position < size){
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
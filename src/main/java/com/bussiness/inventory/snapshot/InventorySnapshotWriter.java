@@ -0,0 +1,182 @@
+package com.bussiness.inventory.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes the file format described on {@link InventorySnapshot}, one row at a time in ascending id order.
+ * Each column is spooled to its own temporary file next to the target as rows arrive, so memory stays flat
+ * however large the catalog is. {@link #finish} writes the header and appends the columns with
+ * {@code FileChannel.transferTo}, which copies within the kernel.
+ */
+public final class InventorySnapshotWriter implements Closeable {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final Path target;
+    private final Column ids;
+    private final Column prices;
+    private final Column categoryIds;
+    private final Column quantities;
+    private final Column nameOffsets;
+    private final Column names;
+    private final List<Column> columns;
+    private long rows;
+    private long nameBytes;
+    private long lastId = Long.MIN_VALUE;
+
+    public InventorySnapshotWriter(Path target) throws IOException {
+        this.target = target;
+        Path directory = target.toAbsolutePath().getParent();
+        String prefix = target.getFileName() + ".";
+        this.ids = new Column(directory, prefix + "ids");
+        this.prices = new Column(directory, prefix + "prices");
+        this.categoryIds = new Column(directory, prefix + "categories");
+        this.quantities = new Column(directory, prefix + "quantities");
+        this.nameOffsets = new Column(directory, prefix + "offsets");
+        this.names = new Column(directory, prefix + "names");
+        this.columns = List.of(ids, prices, categoryIds, quantities, nameOffsets, names);
+        nameOffsets.putInt(0);
+    }
+
+    // price NaN, NO_CATEGORY and NO_QUANTITY stand for nulls; a null name is written as empty
+    public void add(long id, String name, double price, long categoryId, int quantity) throws IOException {
+        if (id <= lastId) {
+            throw new IllegalArgumentException("snapshot rows must be in ascending id order, got " + id + " after " + lastId);
+        }
+        lastId = id;
+        byte[] encodedName = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes + encodedName.length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("product names exceed the 2 GB a snapshot can address");
+        }
+        ids.putLong(id);
+        prices.putDouble(price);
+        categoryIds.putLong(categoryId);
+        quantities.putInt(quantity);
+        names.put(encodedName);
+        nameBytes += encodedName.length;
+        nameOffsets.putInt((int) nameBytes);
+        rows++;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    // writes the target file and returns its size; the spooled columns are deleted by close()
+    public long finish(long createdAt, long changeSequence) throws IOException {
+        if (rows > Integer.MAX_VALUE / Long.BYTES) {
+            throw new IllegalStateException(rows + " rows exceed what a snapshot can map");
+        }
+        ByteBuffer header = ByteBuffer.allocate(InventorySnapshot.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(InventorySnapshot.MAGIC)
+                .putInt(InventorySnapshot.FORMAT_VERSION)
+                .putInt(InventorySnapshot.HEADER_BYTES)
+                .putLong(rows)
+                .putLong(nameBytes)
+                .putLong(createdAt)
+                .putLong(changeSequence)
+                .position(InventorySnapshot.HEADER_BYTES)
+                .flip();
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            for (Column column : columns) {
+                column.transferTo(out);
+            }
+            out.force(false);
+            return out.size();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Column column : columns) {
+            try {
+                column.delete();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class Column {
+
+        private final Path file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        Column(Path directory, String name) throws IOException {
+            this.file = directory.resolve(name);
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES).putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES).putDouble(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES).putInt(value);
+        }
+
+        void put(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+                return;
+            }
+            ensure(bytes.length).put(bytes);
+        }
+
+        void transferTo(FileChannel out) throws IOException {
+            flush();
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
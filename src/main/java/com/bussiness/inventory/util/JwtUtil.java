@@ -1,6 +1,7 @@
 package com.bussiness.inventory.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -16,6 +17,7 @@ public class JwtUtil {
 
     private final SecretKey SECRET_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256);
     private final long EXPIRATION_TIME = 24*60*60*1000;
+    private final JwtParser jwtParser = Jwts.parser().verifyWith(SECRET_KEY).build();
 
     public String generateToken(String username, String role, long userId){
         Map<String, Object> claims = new HashMap<>();
@@ -53,11 +55,11 @@ public class JwtUtil {
         return (extractedUsername.equals(username) && !isTokenExpired(token));
     }
 
+    public Claims parseClaims(String token){
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
     private Claims extractAllClaims(String token){
-        return Jwts.parser()
-                .verifyWith(SECRET_KEY)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parseClaims(token);
     }
 }
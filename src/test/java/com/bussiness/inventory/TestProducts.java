@@ -0,0 +1,27 @@
+package com.bussiness.inventory;
+
+import java.util.function.Consumer;
+
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.service.ProductService;
+
+// products saved through ProductService, as the API creates them, for tests that only care about a few fields
+public final class TestProducts {
+
+    private TestProducts() {
+    }
+
+    public static Product createProduct(ProductService productService, String name, double price, int quantity) {
+        return createProduct(productService, name, price, quantity, product -> { });
+    }
+
+    public static Product createProduct(ProductService productService, String name, double price, int quantity,
+                                        Consumer<Product> customize) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setQuantity(quantity);
+        customize.accept(product);
+        return productService.createProduct(product);
+    }
+}
@@ -0,0 +1,74 @@
+package com.bussiness.inventory.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.bussiness.inventory.security.JwtAuthenticationFilter;
+import com.bussiness.inventory.util.EncryptionUtil;
+import com.bussiness.inventory.util.JwtUtil;
+
+import jakarta.servlet.FilterChain;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthBenchmark {
+
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+    private EncryptionUtil encryptionUtil;
+    private String token;
+    private MockHttpServletRequest request;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        jwtUtil = context.bean(JwtUtil.class);
+        filter = context.bean(JwtAuthenticationFilter.class);
+        encryptionUtil = context.bean(EncryptionUtil.class);
+        token = jwtUtil.generateToken(BenchmarkContext.USERNAME, "USER", 1L);
+        request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(BenchmarkContext.USERNAME, "USER", 1L);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, BenchmarkContext.USERNAME);
+    }
+
+    @Benchmark
+    public void authenticationFilter(Blackhole blackhole) throws Exception {
+        filter.doFilter(request, response, chain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public String hashEmail() {
+        return encryptionUtil.hashEmailWithMD5("benchmark@example.com");
+    }
+}
@@ -0,0 +1,107 @@
+package com.bussiness.inventory.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bussiness.inventory.InventoryApplication;
+import com.bussiness.inventory.dto.LoginRequest;
+import com.bussiness.inventory.dto.SignupRequest;
+import com.bussiness.inventory.service.UserService;
+
+// one cart of cartSize products over real HTTP with a JWT, as the order service fetches it:
+// a GET per line against a single batch-get. boots its own server, BenchmarkContext has no web stack
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchGetBenchmark {
+
+    private static final String PASSWORD = "benchmark";
+
+    @Param("10000")
+    public int products;
+
+    @Param({"10", "100"})
+    public int cartSize;
+
+    private ConfigurableApplicationContext context;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private String base;
+    private String authorization;
+    private long[] cart;
+    private String batchBody;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplication(InventoryApplication.class).run(
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.bussiness.inventory=WARN",
+                "--inventory.metrics.argument-log-sample-rate=0");
+        BenchmarkContext.seedProducts(context, products);
+        UserService userService = context.getBean(UserService.class);
+        userService.signup(new SignupRequest("Batch", "Get", BenchmarkContext.USERNAME, "batch@example.com", PASSWORD, "USER"));
+        authorization = "Bearer " + userService.login(new LoginRequest(BenchmarkContext.USERNAME, PASSWORD)).join().getToken();
+        base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+        long[] ids = context.getBean(JdbcTemplate.class).queryForObject("select min(id), max(id) from products",
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)});
+        Random random = new Random(42);
+        cart = new long[cartSize];
+        StringBuilder body = new StringBuilder("{\"ids\":[");
+        for (int i = 0; i < cartSize; i++) {
+            cart[i] = ids[0] + random.nextInt((int) (ids[1] - ids[0] + 1));
+            body.append(i == 0 ? "" : ",").append(cart[i]);
+        }
+        batchBody = body.append("]}").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void singleGets(Blackhole blackhole) throws IOException, InterruptedException {
+        for (long id : cart) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/products/" + id))
+                    .header("Authorization", authorization).build();
+            blackhole.consume(client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body());
+        }
+    }
+
+    @Benchmark
+    public byte[] batchGet() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/products/batch-get"))
+                .header("Authorization", authorization).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(batchBody)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+}
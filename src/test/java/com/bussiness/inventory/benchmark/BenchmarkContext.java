@@ -0,0 +1,81 @@
+package com.bussiness.inventory.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.bussiness.inventory.InventoryApplication;
+import com.bussiness.inventory.dto.SignupRequest;
+import com.bussiness.inventory.service.ProductImportService;
+import com.bussiness.inventory.service.UserService;
+
+/**
+ * Boots the application on an in-memory H2 database seeded with {@code products} rows
+ * (override with {@code -Djmh.products=1000000}), shared by every benchmark of a trial.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    static final String USERNAME = "benchmark";
+    static final String[] WORDS = {
+            "steel", "hammer", "copper", "wire", "drill", "bit", "cordless", "saw", "blade", "wrench",
+            "socket", "set", "ladder", "paint", "brush", "roller", "glue", "tape", "screw", "bolt",
+            "nut", "washer", "hinge", "lock", "chain", "rope", "bucket", "glove", "helmet", "lamp"
+    };
+
+    @Param("10000")
+    public int products;
+
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplication(InventoryApplication.class).run(
+                "--spring.profiles.active=test",
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.bussiness.inventory=WARN",
+                "--inventory.metrics.argument-log-sample-rate=0");
+        seedProducts(context, products);
+        context.getBean(UserService.class).signup(
+                new SignupRequest("Bench", "Mark", USERNAME, "benchmark@example.com", "benchmark", "USER"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // loads products rows through the CSV importer, as a bulk import would
+    static void seedProducts(ConfigurableApplicationContext context, int products) throws Exception {
+        Random random = new Random(42);
+        ProductImportService importer = context.getBean(ProductImportService.class);
+        int chunk = 50_000;
+        for (int start = 0; start < products; start += chunk) {
+            StringBuilder csv = new StringBuilder("name,price,quantity,category\n");
+            for (int i = start; i < Math.min(products, start + chunk); i++) {
+                csv.append(WORDS[random.nextInt(WORDS.length)]).append(' ')
+                        .append(WORDS[random.nextInt(WORDS.length)]).append(' ').append(i).append(',')
+                        .append(1 + random.nextInt(100_000) / 100.0).append(',')
+                        .append(random.nextInt(200)).append(',')
+                        .append("category ").append(i % 50).append('\n');
+            }
+            importer.importProducts(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                    ProductImportService.Format.CSV);
+        }
+    }
+}
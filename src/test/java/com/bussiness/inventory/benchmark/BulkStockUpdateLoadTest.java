@@ -0,0 +1,61 @@
+package com.bussiness.inventory.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bussiness.inventory.InventoryApplication;
+import com.bussiness.inventory.dto.BulkStockUpdateResponse;
+import com.bussiness.inventory.dto.StockUpdateRequest;
+import com.bussiness.inventory.service.StockUpdateService;
+
+// a cycle count of benchmark.items corrections (half deltas, half absolute counts) against benchmark.products rows.
+// mvn test -Dtest=BulkStockUpdateLoadTest -Dbenchmarks=true [-Dbenchmark.items=100000] [-Dbenchmark.products=100000]
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class BulkStockUpdateLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkStockUpdateLoadTest.class);
+
+    @Test
+    void hundredThousandCorrections() throws Exception {
+        int items = Integer.getInteger("benchmark.items", 100_000);
+        int products = Integer.getInteger("benchmark.products", 100_000);
+        ConfigurableApplicationContext context = new SpringApplication(InventoryApplication.class).run(
+                "--spring.profiles.active=test",
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.bussiness.inventory=WARN",
+                "--logging.level.com.bussiness.inventory.benchmark=INFO",
+                "--inventory.metrics.argument-log-sample-rate=0");
+        try {
+            BenchmarkContext.seedProducts(context, products);
+            long[] ids = context.getBean(JdbcTemplate.class).queryForObject("select min(id), max(id) from products",
+                    (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)});
+            Random random = new Random(42);
+            List<StockUpdateRequest> updates = new ArrayList<>(items);
+            for (int i = 0; i < items; i++) {
+                long id = ids[0] + random.nextInt((int) (ids[1] - ids[0] + 1));
+                updates.add(i % 2 == 0 ? new StockUpdateRequest(id, 1 + random.nextInt(10), null)
+                        : new StockUpdateRequest(id, null, random.nextInt(500)));
+            }
+
+            BulkStockUpdateResponse response = context.getBean(StockUpdateService.class).update(updates);
+            assertEquals(items, response.getUpdated());
+            logger.info("{} stock corrections over {} products: {} ms in {} transactions ({} items/sec)",
+                    items, products, response.getElapsedMs(), response.getTransactions(), Math.round(response.getItemsPerSecond()));
+        } finally {
+            context.close();
+        }
+    }
+}
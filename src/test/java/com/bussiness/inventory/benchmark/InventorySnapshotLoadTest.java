@@ -0,0 +1,112 @@
+package com.bussiness.inventory.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.bussiness.inventory.InventoryApplication;
+import com.bussiness.inventory.dto.LoginRequest;
+import com.bussiness.inventory.dto.SignupRequest;
+import com.bussiness.inventory.dto.SnapshotInfo;
+import com.bussiness.inventory.service.UserService;
+import com.bussiness.inventory.snapshot.InventorySnapshot;
+import com.bussiness.inventory.snapshot.InventorySnapshotService;
+import com.bussiness.inventory.snapshot.InventorySnapshotWriter;
+
+// writes a snapshot of benchmark.rows synthetic products and scans it through the mapping, reporting the heap
+// allocated per row; then exports benchmark.products seeded rows from H2 and downloads them over HTTP from a
+// real tomcat, where the file goes out with sendfile.
+// mvn test -Dtest=InventorySnapshotLoadTest -Dbenchmarks=true [-Dbenchmark.rows=5000000] [-Dbenchmark.products=100000]
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class InventorySnapshotLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventorySnapshotLoadTest.class);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void fiveMillionRowsWrittenAndScanned() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 5_000_000);
+        Path file = directory.resolve("synthetic.snap");
+        long start = System.nanoTime();
+        try (InventorySnapshotWriter writer = new InventorySnapshotWriter(file)) {
+            for (int i = 1; i <= rows; i++) {
+                writer.add(i, BenchmarkContext.WORDS[i % BenchmarkContext.WORDS.length] + " hammer " + i, 1 + i % 1000 / 10.0,
+                        1 + i % 50, i % 200);
+            }
+            writer.finish(System.currentTimeMillis(), 0);
+        }
+        long writeMs = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        InventorySnapshot snapshot = InventorySnapshot.open(file);
+        long allocatedBefore = allocatedBytes();
+        double value = 0;
+        long nameBytes = 0;
+        byte[] name = new byte[256];
+        for (int row = 0; row < snapshot.rows(); row++) {
+            value += snapshot.price(row) * snapshot.quantity(row);
+            nameBytes += snapshot.copyName(row, name);
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+        long scanMs = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(rows, snapshot.rows());
+        logger.info("{} rows: written in {} ms ({} MB), opened and scanned in {} ms, {} bytes allocated during the scan"
+                        + " (value {}, name bytes {})",
+                rows, writeMs, Files.size(file) >> 20, scanMs, allocated, Math.round(value), nameBytes);
+    }
+
+    @Test
+    void databaseExportServedOverHttp() throws Exception {
+        int products = Integer.getInteger("benchmark.products", 100_000);
+        ConfigurableApplicationContext context = new SpringApplication(InventoryApplication.class).run(
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.bussiness.inventory=WARN",
+                "--inventory.metrics.argument-log-sample-rate=0",
+                "--logging.level.com.bussiness.inventory.benchmark=INFO",
+                "--inventory.snapshot.directory=" + directory);
+        try {
+            BenchmarkContext.seedProducts(context, products);
+            SnapshotInfo info = context.getBean(InventorySnapshotService.class).export();
+
+            UserService userService = context.getBean(UserService.class);
+            userService.signup(new SignupRequest("Snap", "Shot", BenchmarkContext.USERNAME, "snapshot@example.com", "benchmark", "USER"));
+            String token = userService.login(new LoginRequest(BenchmarkContext.USERNAME, "benchmark")).join().getToken();
+            String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/products/snapshot";
+            Path downloaded = directory.resolve("downloaded.snap");
+            long start = System.nanoTime();
+            HttpResponse<Path> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create(url)).header("Authorization", "Bearer " + token).build(),
+                    HttpResponse.BodyHandlers.ofFile(downloaded));
+            long downloadMs = (System.nanoTime() - start) / 1_000_000;
+            assertEquals(200, response.statusCode());
+            assertEquals(products, InventorySnapshot.open(downloaded).rows());
+            logger.info("{} products exported from H2 in {} ms ({} bytes), downloaded in {} ms",
+                    info.getRows(), info.getElapsedMs(), info.getBytes(), downloadMs);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,79 @@
+package com.bussiness.inventory.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import com.bussiness.inventory.cache.JsonResponseCache;
+import com.bussiness.inventory.dto.CategorySummary;
+import com.bussiness.inventory.model.Category;
+import com.bussiness.inventory.model.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// what a hot GET writes to the response stream: Jackson encoding the body, as the message converter does,
+// against copying the bytes JsonResponseCache holds. run with -prof gc for the allocation rate
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonResponseCacheBenchmark {
+
+    // spring's converter leaves the response stream open, and so does this mapper
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    private final OutputStream out = OutputStream.nullOutputStream();
+    private JsonResponseCache cache;
+    private Product product;
+    private List<CategorySummary> categories;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new JsonResponseCache(objectMapper, new SimpleMeterRegistry(), DataSize.ofMegabytes(64));
+        Category category = new Category(1L, "tools", "hand tools", null, 0L, null);
+        product = new Product(42L, "steel hammer", 19.5, 120, 10, Product.unitValueOf(19.5, 120), 7L, category);
+        categories = new ArrayList<>();
+        for (long i = 0; i < 50; i++) {
+            categories.add(new CategorySummary(i, "category " + i, "description of category " + i, null, i * 3));
+        }
+    }
+
+    @Benchmark
+    public void productSerialized() throws IOException {
+        objectMapper.writeValue(out, product);
+    }
+
+    @Benchmark
+    public void productCached() throws IOException {
+        out.write(cache.product(product));
+    }
+
+    @Benchmark
+    public void categoryListSerialized() throws IOException {
+        objectMapper.writeValue(out, categories);
+    }
+
+    @Benchmark
+    public void categoryListCached() throws IOException {
+        out.write(cache.tagged("categories-1-1", () -> categories));
+    }
+}
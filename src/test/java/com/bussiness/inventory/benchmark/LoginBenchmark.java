@@ -0,0 +1,67 @@
+package com.bussiness.inventory.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.bussiness.inventory.dto.LoginRequest;
+import com.bussiness.inventory.dto.LoginResponse;
+import com.bussiness.inventory.model.User;
+import com.bussiness.inventory.repository.UserRepository;
+import com.bussiness.inventory.service.UserService;
+import com.bussiness.inventory.util.JwtUtil;
+
+// logins per second from 8 concurrent callers: the original inline path against the hashing pool
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(8)
+@Fork(1)
+public class LoginBenchmark {
+
+    private UserService userService;
+    private UserRepository userRepository;
+    private PasswordEncoder passwordEncoder;
+    private JwtUtil jwtUtil;
+    private final LoginRequest request = new LoginRequest(BenchmarkContext.USERNAME, "benchmark");
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        userService = context.bean(UserService.class);
+        userRepository = context.bean(UserRepository.class);
+        passwordEncoder = context.bean(PasswordEncoder.class);
+        jwtUtil = context.bean(JwtUtil.class);
+    }
+
+    @Benchmark
+    public LoginResponse login() {
+        return userService.login(request).join();
+    }
+
+    // what login did before: BCrypt on the caller's thread and a save of the user row per login
+    @Benchmark
+    public String inlineLogin() {
+        User user = userRepository.findByUsername(request.getUsername()).orElseThrow();
+        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            throw new IllegalStateException("Invalid password");
+        }
+        user.setLastlogin(LocalDateTime.now());
+        userRepository.save(user);
+        return jwtUtil.generateToken(user.getUsername(), user.getRole(), user.getId());
+    }
+}
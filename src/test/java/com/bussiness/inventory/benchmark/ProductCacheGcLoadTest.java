@@ -0,0 +1,100 @@
+package com.bussiness.inventory.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bussiness.inventory.cache.OffHeapProductStore;
+import com.bussiness.inventory.event.ProductSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// the same working set of benchmark.products products held by a heap-only cache and by a small heap tier over
+// the off-heap store, as ProductCache arranges them. reports collector time spent during benchmark.reads
+// random reads, the pause of a full collection with the cache live, and the heap it leaves in use.
+// mvn test -Dtest=ProductCacheGcLoadTest -Dbenchmarks=true [-Dbenchmark.products=2000000] [-Dbenchmark.reads=20000000]
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ProductCacheGcLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCacheGcLoadTest.class);
+
+    private final int products = Integer.getInteger("benchmark.products", 2_000_000);
+    private final int reads = Integer.getInteger("benchmark.reads", 20_000_000);
+
+    @Test
+    void heapOnlyAgainstOffHeapTier() {
+        Cache<Long, ProductSnapshot> heapOnly = Caffeine.newBuilder().maximumSize(products).build();
+        run("heap only (L1 " + products + ")", id -> heapOnly.get(id, ProductCacheGcLoadTest::product), heapOnly::getIfPresent);
+        heapOnly.invalidateAll();
+        heapOnly.cleanUp();
+        System.gc();
+
+        Cache<Long, ProductSnapshot> l1 = Caffeine.newBuilder().maximumSize(10_000).build();
+        OffHeapProductStore l2 = new OffHeapProductStore(products, 128);
+        run("L1 10000 + off-heap L2 " + products, id -> {
+            ProductSnapshot cached = l1.getIfPresent(id);
+            if (cached == null) {
+                cached = l2.get(id);
+                if (cached == null) {
+                    cached = product(id);
+                    l2.put(cached);
+                }
+                l1.put(id, cached);
+            }
+            return cached;
+        }, id -> {
+            ProductSnapshot cached = l1.getIfPresent(id);
+            return cached != null ? cached : l2.get(id);
+        });
+        logger.info("off-heap store: {} entries in {} MB of direct memory", l2.size(), l2.memoryBytes() >> 20);
+    }
+
+    private void run(String label, LongFunction<ProductSnapshot> load, LongFunction<ProductSnapshot> check) {
+        for (long id = 1; id <= products; id++) {
+            load.apply(id);
+        }
+        assertNotNull(check.apply(products / 2));
+        System.gc();
+
+        SplittableRandom random = new SplittableRandom(42);
+        long[] before = collections();
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < reads; i++) {
+            ProductSnapshot product = load.apply(1 + random.nextInt(products));
+            checksum += product.quantity();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        long[] after = collections();
+
+        long fullStart = System.nanoTime();
+        System.gc();
+        long fullGcMs = (System.nanoTime() - fullStart) / 1_000_000;
+        long heapMb = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20;
+        logger.info("{}: {} reads in {} ms; {} collections taking {} ms during reads; full GC with cache live {} ms; heap in use {} MB (checksum {})",
+                label, reads, elapsedMs, after[0] - before[0], after[1] - before[1], fullGcMs, heapMb, checksum);
+    }
+
+    private static long[] collections() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[] {count, time};
+    }
+
+    private static ProductSnapshot product(long id) {
+        return new ProductSnapshot(id, "benchmark product " + id, 1.0 + id % 1000, (int) (id % 500),
+                id % 50 == 0 ? null : id % 50, 0L, null);
+    }
+}
@@ -0,0 +1,73 @@
+package com.bussiness.inventory.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bussiness.inventory.dto.InventoryAggregates;
+import com.bussiness.inventory.dto.ProductSearchResponse;
+import com.bussiness.inventory.dto.ProductSummaryPage;
+import com.bussiness.inventory.service.InventoryAggregateService;
+import com.bussiness.inventory.service.ProductService;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private ProductService productService;
+    private InventoryAggregateService inventoryAggregateService;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        productService = context.bean(ProductService.class);
+        inventoryAggregateService = context.bean(InventoryAggregateService.class);
+    }
+
+    @Benchmark
+    public ProductSearchResponse search() {
+        String word = BenchmarkContext.WORDS[ThreadLocalRandom.current().nextInt(BenchmarkContext.WORDS.length)];
+        return productService.searchProduct(word.substring(0, Math.min(4, word.length())), 0, 20);
+    }
+
+    @Benchmark
+    public ProductSummaryPage priceRange() {
+        double low = ThreadLocalRandom.current().nextInt(1000);
+        return productService.getProductsByPriceRange(low, low + 1, null, null);
+    }
+
+    @Benchmark
+    public ProductSummaryPage lowStock() {
+        return productService.getLowStockProduct(1, null, null);
+    }
+
+    // what the replenishment job issues: a first page for one of many thresholds
+    @Benchmark
+    public ProductSummaryPage lowStockPage() {
+        return productService.getLowStockProduct(ThreadLocalRandom.current().nextInt(200), 0, 100);
+    }
+
+    @Benchmark
+    public Double totalInventory() {
+        return productService.totalInventory();
+    }
+
+    @Benchmark
+    public InventoryAggregates aggregates() {
+        return inventoryAggregateService.getAggregates();
+    }
+}
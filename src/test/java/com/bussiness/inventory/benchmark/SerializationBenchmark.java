@@ -0,0 +1,63 @@
+package com.bussiness.inventory.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bussiness.inventory.dto.ProductSummary;
+import com.bussiness.inventory.model.Category;
+import com.bussiness.inventory.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Jackson cost of list responses; the mapper is built like Spring's but without booting the application
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    public int listSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private List<Product> products;
+    private List<ProductSummary> summaries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Category category = new Category(1L, "tools", "hand tools", null, 0L, null);
+        products = new ArrayList<>(listSize);
+        summaries = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            Product product = new Product((long) i, "steel hammer " + i, 10.0 + i, i % 200, null, Product.unitValueOf(10.0 + i, i % 200), 0L, category);
+            products.add(product);
+            summaries.add(new ProductSummary(product.getId(), product.getName(), product.getPrice(),
+                    product.getQuantity(), category.getId(), category.getName()));
+        }
+    }
+
+    @Benchmark
+    public byte[] products() throws Exception {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] productSummaries() throws Exception {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+}
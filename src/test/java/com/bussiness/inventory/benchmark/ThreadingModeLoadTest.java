@@ -0,0 +1,134 @@
+package com.bussiness.inventory.benchmark;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.bussiness.inventory.InventoryApplication;
+import com.bussiness.inventory.dto.SignupRequest;
+import com.bussiness.inventory.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// boots the full HTTP stack once per threading mode and drives it with many concurrent connections:
+// product reads (JDBC) with every 100th request a login (BCrypt).
+// mvn test -Dtest=ThreadingModeLoadTest -Dbenchmarks=true [-Dbenchmark.connections=5000] [-Dbenchmark.requests=100000]
+// needs a Java 21+ runtime (e.g. JAVA_HOME pointing at a 21 JDK), otherwise there is no virtual mode to compare
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ThreadingModeLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingModeLoadTest.class);
+
+    private static final String PASSWORD = "benchmark";
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        int connections = Integer.getInteger("benchmark.connections", 5_000);
+        int requests = Integer.getInteger("benchmark.requests", 100_000);
+        int products = Integer.getInteger("benchmark.products", 10_000);
+        assumeTrue(Threading.VIRTUAL.isActive(new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true")),
+                "virtual threads need a Java 21+ runtime");
+        for (boolean virtual : new boolean[] {false, true}) {
+            run(virtual, connections, requests, products);
+        }
+    }
+
+    private void run(boolean virtual, int connections, int requests, int products) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplication(InventoryApplication.class).run(
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--server.tomcat.max-connections=" + (connections + 1000),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.bussiness.inventory=WARN",
+                "--logging.level.com.bussiness.inventory.benchmark=INFO",
+                "--inventory.metrics.argument-log-sample-rate=0");
+        try {
+            BenchmarkContext.seedProducts(context, products);
+            context.getBean(UserService.class).signup(
+                    new SignupRequest("Load", "Test", BenchmarkContext.USERNAME, "load@example.com", PASSWORD, "USER"));
+            String mode = Threading.VIRTUAL.isActive(context.getEnvironment()) ? "virtual" : "platform";
+
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            long[] ids = context.getBean(JdbcTemplate.class).queryForObject("select min(id), max(id) from products",
+                    (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)});
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30)).build();
+            String login = new ObjectMapper().writeValueAsString(
+                    Map.of("username", BenchmarkContext.USERNAME, "password", PASSWORD));
+            String token = new ObjectMapper().readTree(client.send(loginRequest(base, login),
+                    HttpResponse.BodyHandlers.ofString()).body()).get("token").asText();
+
+            drive(client, base, token, login, ids, connections, Math.min(requests, 10_000), null);
+            long[] latencies = new long[requests];
+            long begin = System.nanoTime();
+            int errors = drive(client, base, token, login, ids, connections, requests, latencies);
+            long elapsedNanos = System.nanoTime() - begin;
+
+            Arrays.sort(latencies);
+            logger.info("{} threads, {} connections, {} requests: {} req/sec, p50 {} ms, p99 {} ms, max {} ms, {} errors",
+                    mode, connections, requests, Math.round(requests * 1e9 / elapsedNanos),
+                    latencies[requests / 2] / 1_000_000, latencies[(int) (requests * 0.99)] / 1_000_000,
+                    latencies[requests - 1] / 1_000_000, errors);
+        } finally {
+            context.close();
+        }
+    }
+
+    // keeps up to connections requests in flight; latencies may be null for a warmup pass
+    private int drive(HttpClient client, String base, String token, String login, long[] ids,
+                      int connections, int requests, long[] latencies) throws InterruptedException {
+        Random random = new Random(42);
+        Semaphore inFlight = new Semaphore(connections);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger errors = new AtomicInteger();
+        for (int i = 0; i < requests; i++) {
+            HttpRequest request = i % 100 == 0
+                    ? loginRequest(base, login)
+                    : HttpRequest.newBuilder(URI.create(base + "/api/products/" + (ids[0] + random.nextInt((int) (ids[1] - ids[0] + 1)))))
+                            .header("Authorization", "Bearer " + token).timeout(Duration.ofMinutes(2)).build();
+            int slot = i;
+            inFlight.acquire();
+            long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                if (latencies != null) {
+                    latencies[slot] = System.nanoTime() - start;
+                }
+                if (failure != null || response.statusCode() >= 400) {
+                    errors.incrementAndGet();
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        done.await(10, TimeUnit.MINUTES);
+        return errors.get();
+    }
+
+    private static HttpRequest loginRequest(String base, String body) {
+        return HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                .header("Content-Type", "application/json").timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+}
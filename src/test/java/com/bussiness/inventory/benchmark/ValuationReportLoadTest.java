@@ -0,0 +1,72 @@
+package com.bussiness.inventory.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.bussiness.inventory.InventoryApplication;
+import com.bussiness.inventory.cache.CategoryCache;
+import com.bussiness.inventory.repository.ProductJdbcRepository;
+import com.bussiness.inventory.repository.ProductRepository;
+import com.bussiness.inventory.report.InventoryValuationService;
+import com.bussiness.inventory.service.InventoryAggregateService;
+
+// seeds benchmark.products products in 50 categories and builds the valuation report with 1, 2 and 4 folding
+// threads, comparing its total with the Double SUM behind the old /getTotalInventory query.
+// mvn test -Dtest=ValuationReportLoadTest -Dbenchmarks=true [-Dbenchmark.products=500000]
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ValuationReportLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationReportLoadTest.class);
+
+    @Test
+    void reportOverSeededCatalog() throws Exception {
+        int products = Integer.getInteger("benchmark.products", 500_000);
+        ConfigurableApplicationContext context = new SpringApplication(InventoryApplication.class).run(
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.bussiness.inventory=WARN",
+                "--inventory.metrics.argument-log-sample-rate=0",
+                "--logging.level.com.bussiness.inventory.benchmark=INFO");
+        try {
+            BenchmarkContext.seedProducts(context, products);
+            BigDecimal exact = context.getBean(InventoryAggregateService.class).getTotalValue();
+            Double summed = context.getBean(ProductRepository.class).getTotalInventory();
+
+            for (int threads : new int[] {1, 2, 4}) {
+                InventoryValuationService service = new InventoryValuationService(context.getBean(ProductJdbcRepository.class),
+                        context.getBean(PlatformTransactionManager.class), context.getBean(CategoryCache.class),
+                        threads, 4096, new double[] {10, 50, 100, 500, 1000}, 10);
+                String total = null;
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < 5; round++) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    long start = System.nanoTime();
+                    service.writeCsv(out);
+                    best = Math.min(best, System.nanoTime() - start);
+                    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+                    total = lines[lines.length - 1];
+                }
+                assertEquals(exact.setScale(2, RoundingMode.HALF_EVEN).toPlainString(), total.split(",")[5]);
+                logger.info("{} products, {} folding threads: report in {} ms (best of 5)", products, threads, best / 1_000_000);
+            }
+            logger.info("exact total {}, Double SUM {} (off by {})", exact.setScale(4, RoundingMode.HALF_EVEN), summed,
+                    new BigDecimal(summed).subtract(exact).setScale(6, RoundingMode.HALF_EVEN));
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.bussiness.inventory.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.bussiness.inventory.dto.CategorySummary;
+import com.bussiness.inventory.model.Category;
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.repository.CategoryRepository;
+import com.bussiness.inventory.service.CategoryService;
+import com.bussiness.inventory.service.ProductService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CategoryCacheTest {
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentCreatesWithANewCategoryNameShareOneCategory() throws Exception {
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Long> categoryIds = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < threads; i++) {
+            int n = i;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                Product product = new Product();
+                product.setName("racing product " + n);
+                product.setPrice(5.0);
+                product.setQuantity(1);
+                categoryIds.add(productService.createProductWithCategoryName(product, "racing category").getCategory().getId());
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(1, categoryIds.size());
+        assertEquals(threads, productService.getProductByCategoryId(categoryIds.iterator().next()).size());
+    }
+
+    @Test
+    void servesRepeatedLookupsFromMemoryAndSeesWrites() {
+        Category category = new Category();
+        category.setName("cached tools");
+        category.setDescription("hand tools");
+        Long id = categoryService.createCategory(category).getId();
+
+        double hitsBefore = hits();
+        assertEquals("cached tools", categoryCache.findById(id).orElseThrow().getName());
+        assertEquals(id, categoryCache.findByName("cached tools").orElseThrow().getId());
+        assertTrue(categoryCache.all().stream().anyMatch(c -> c.getId().equals(id)));
+        assertEquals(hitsBefore + 3, hits());
+
+        Category update = new Category();
+        update.setName("cached tools");
+        update.setDescription("power tools");
+        categoryService.updateCategory(id, update);
+        assertEquals("power tools", categoryCache.findById(id).orElseThrow().getDescription());
+
+        // rows written behind the cache's back are still found by key
+        categoryRepository.save(new Category(null, "written elsewhere", null, null, null, null));
+        CategorySummary elsewhere = categoryCache.findByName("written elsewhere").orElseThrow();
+        List<CategorySummary> all = categoryCache.all();
+        assertTrue(all.stream().anyMatch(c -> c.getId().equals(elsewhere.getId())));
+    }
+
+    @Test
+    void changesMadeByAnotherInstanceAreSeenOnceTheSnapshotExpires() throws InterruptedException {
+        CategoryCache shortLived = new CategoryCache(categoryRepository, eventPublisher, resourceVersions,
+                transactionManager, new SimpleMeterRegistry(), 200);
+        Long id = categoryRepository.save(new Category(null, "remote fixtures", "before", null, null, null)).getId();
+        assertEquals("before", shortLived.findById(id).orElseThrow().getDescription());
+
+        // no event here, as if another instance made the change
+        jdbcTemplate.update("update categories set description = 'after' where id = ?", id);
+        String tag = resourceVersions.categoriesTag();
+        assertEquals("before", shortLived.findById(id).orElseThrow().getDescription());
+
+        Thread.sleep(250);
+        assertEquals("after", shortLived.findById(id).orElseThrow().getDescription());
+        assertNotEquals(tag, resourceVersions.categoriesTag());
+    }
+
+    private double hits() {
+        return meterRegistry.get("inventory.category.cache").tag("result", "hit").counter().count();
+    }
+}
@@ -0,0 +1,117 @@
+package com.bussiness.inventory.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bussiness.inventory.event.ProductSnapshot;
+import com.bussiness.inventory.metrics.QueryCounter;
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.service.ProductService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductCacheTest {
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repeatedReadsSkipTheDatabaseAndWritesGoThrough() {
+        Product product = new Product();
+        product.setName("cached drill");
+        product.setPrice(40.0);
+        product.setQuantity(8);
+        Long id = productService.createProduct(product).getId();
+
+        double hitsBefore = count("l1_hit");
+        QueryCounter.reset();
+        Product read = productService.getProduct(id).orElseThrow();
+        assertEquals("cached drill", read.getName());
+        assertEquals(5.0, read.getUnitValue());
+        assertEquals(0, QueryCounter.current());
+        assertEquals(hitsBefore + 1, count("l1_hit"));
+
+        Product update = new Product();
+        update.setName("cached hammer drill");
+        update.setPrice(40.0);
+        update.setQuantity(8);
+        productService.updateProduct(id, update);
+        productService.adjustStock(id, -3);
+        QueryCounter.reset();
+        Product updated = productService.getProduct(id).orElseThrow();
+        assertEquals(0, QueryCounter.current());
+        assertEquals("cached hammer drill", updated.getName());
+        assertEquals(5, updated.getQuantity());
+        assertEquals(read.getVersion() + 2, updated.getVersion());
+
+        // the off-heap tier still answers once the heap tier lost the entry
+        productCache.evict(id);
+        double misses = count("miss");
+        productService.getProduct(id);
+        productService.getProduct(id);
+        assertEquals(misses + 1, count("miss"));
+
+        productService.deleteProduct(id);
+        assertTrue(productService.getProduct(id).isEmpty());
+    }
+
+    @Test
+    void offHeapStoreSurvivesChurnAtCapacity() {
+        OffHeapProductStore store = new OffHeapProductStore(1000, 64);
+        Map<Long, ProductSnapshot> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(3000);
+            if (random.nextInt(4) == 0) {
+                store.remove(id);
+                expected.remove(id);
+            } else {
+                ProductSnapshot product = new ProductSnapshot(id, "p" + i, random.nextBoolean() ? null : i * 0.5,
+                        i, null, (long) i, random.nextBoolean() ? null : 3);
+                store.put(product);
+                expected.put(id, product);
+            }
+        }
+        assertTrue(store.size() <= store.capacity());
+        // eviction may have dropped entries, but whatever is found is the latest write
+        int found = 0;
+        for (long id = 1; id <= 3000; id++) {
+            ProductSnapshot product = store.get(id);
+            if (product != null) {
+                assertEquals(expected.get(id), product);
+                found++;
+            }
+        }
+        assertEquals(store.size(), found);
+
+        ProductSnapshot current = new ProductSnapshot(5000L, "ünïcode", 1.0, 1, 9L, 10L, null);
+        store.put(current);
+        store.put(new ProductSnapshot(5000L, "stale", 1.0, 1, 9L, 9L, null));
+        assertEquals(current, store.get(5000L));
+        assertFalse(store.put(new ProductSnapshot(5000L, "x".repeat(64), 1.0, 1, 9L, 11L, null)));
+        assertNull(store.get(5000L));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("inventory.product.cache").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,73 @@
+package com.bussiness.inventory.controller;
+
+import static com.bussiness.inventory.TestProducts.createProduct;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bussiness.inventory.dto.ProductBatchRequest;
+import com.bussiness.inventory.metrics.QueryCounter;
+import com.bussiness.inventory.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class BatchGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void returnsProductsInRequestOrderWithMissingIdsInOneQuery() throws Exception {
+        Long a = createProduct(productService, "batch get a", 3.0, 7).getId();
+        Long b = createProduct(productService, "batch get b", 3.0, 7).getId();
+        Long c = createProduct(productService, "batch get c", 3.0, 7).getId();
+        long absent = c + 1_000_000;
+
+        mockMvc.perform(post("/api/products/batch-get").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ProductBatchRequest(List.of(c, absent, a, c, b)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(3))
+                .andExpect(jsonPath("$.products[0].id").value(c))
+                .andExpect(jsonPath("$.products[1].id").value(a))
+                .andExpect(jsonPath("$.products[2].name").value("batch get b"))
+                .andExpect(jsonPath("$.missing[0]").value(absent));
+        // QueryCountFilter resets the counter when the request starts; MockMvc runs it on this thread
+        assertEquals(1, QueryCounter.current());
+    }
+
+    @Test
+    void largeListsAreChunkedAndOversizedOnesRejected() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+        mockMvc.perform(post("/api/products/batch-get").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ProductBatchRequest(ids))))
+                .andExpect(status().isOk());
+        assertEquals(3, QueryCounter.current());
+
+        List<Long> tooMany = LongStream.rangeClosed(1, 10_001).boxed().toList();
+        mockMvc.perform(post("/api/products/batch-get").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ProductBatchRequest(tooMany))))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,106 @@
+package com.bussiness.inventory.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bussiness.inventory.dto.LoginRequest;
+import com.bussiness.inventory.dto.SignupRequest;
+import com.bussiness.inventory.event.ChangeFeed;
+import com.bussiness.inventory.service.UserService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// a client that stops reading must not hold the only sender thread: it is cut off after send-timeout-ms and
+// a second subscriber still gets new records
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "inventory.changes.sender-threads=1",
+        "inventory.changes.send-timeout-ms=500"})
+@ActiveProfiles("test")
+class ChangeFeedSlowConsumerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void stalledSubscriberIsDisconnectedAndOthersKeepReceiving() throws Exception {
+        userService.signup(new SignupRequest("Slow", "Reader", "slowreader", "slow@example.com", "secret1", "USER"));
+        String token = userService.login(new LoginRequest("slowreader", "secret1")).join().getToken();
+
+        try (Socket stalled = new Socket()) {
+            stalled.setReceiveBufferSize(4096);
+            stalled.connect(new InetSocketAddress("localhost", port));
+            OutputStream out = stalled.getOutputStream();
+            out.write(("GET /api/products/changes HTTP/1.1\r\nHost: localhost\r\nAuthorization: Bearer " + token
+                    + "\r\nAccept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            awaitSubscribers(1);
+
+            // far more than the socket buffers hold, and never read
+            String payload = "x".repeat(64 * 1024);
+            for (long i = 0; i < 400; i++) {
+                changeFeed.publish("test", "BULK", i, null, payload);
+            }
+            awaitSubscribers(0);
+
+            // the response headers only go out with the first event
+            CompletableFuture<HttpResponse<InputStream>> response = HttpClient.newHttpClient().sendAsync(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/changes"))
+                            .header("Authorization", "Bearer " + token).build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            awaitSubscribers(1);
+            changeFeed.publish("test", "AFTER_STALL", 1L, null, "fresh");
+            InputStream body = response.get(10, TimeUnit.SECONDS).body();
+            CompletableFuture<Boolean> received = CompletableFuture.supplyAsync(() -> {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.contains("AFTER_STALL")) {
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    return false;
+                }
+            });
+            assertTrue(received.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private void awaitSubscribers(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (meterRegistry.get("inventory.changes.subscribers").gauge().value() != expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "expected " + expected + " change feed subscribers");
+            Thread.sleep(20);
+        }
+    }
+}
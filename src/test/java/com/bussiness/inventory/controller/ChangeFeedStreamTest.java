@@ -0,0 +1,71 @@
+package com.bussiness.inventory.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bussiness.inventory.event.ChangeFeed;
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.service.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class ChangeFeedStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Test
+    void streamsCommittedChangesInOrderFromTheGivenSequence() throws Exception {
+        long start = changeFeed.latestSequence();
+        Product product = new Product();
+        product.setName("feed product");
+        product.setPrice(4.0);
+        product.setQuantity(5);
+        Long id = productService.createProduct(product).getId();
+        productService.adjustStock(id, -2);
+
+        MockHttpServletResponse response = mockMvc.perform(get("/api/products/changes").param("since", Long.toString(start)))
+                .andExpect(request().asyncStarted()).andReturn().getResponse();
+        String body = awaitContent(response, "id:" + (start + 2));
+
+        int created = body.indexOf("\"type\":\"CREATED\",\"id\":" + id);
+        int adjusted = body.indexOf("\"type\":\"STOCK_CHANGED\",\"id\":" + id);
+        assertTrue(created >= 0 && adjusted > created, body);
+        assertTrue(body.contains("id:" + (start + 1) + "\nevent:product\n"), body);
+    }
+
+    @Test
+    void unknownSequenceGetsReset() throws Exception {
+        long future = changeFeed.latestSequence() + 1000;
+        MockHttpServletResponse response = mockMvc.perform(get("/api/products/changes").param("since", Long.toString(future)))
+                .andExpect(request().asyncStarted()).andReturn().getResponse();
+        awaitContent(response, "event:reset");
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().contains(expected)) {
+            assertTrue(System.currentTimeMillis() < deadline, "no " + expected + " in " + response.getContentAsString());
+            Thread.sleep(20);
+        }
+        return response.getContentAsString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.bussiness.inventory.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.bussiness.inventory.metrics.QueryCounter;
+import com.bussiness.inventory.model.Category;
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.service.CategoryService;
+import com.bussiness.inventory.service.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Test
+    void productIsNotModifiedUntilItsStockChanges() throws Exception {
+        Product product = new Product();
+        product.setName("etag product");
+        product.setPrice(5.0);
+        product.setQuantity(10);
+        Long id = productService.createProduct(product).getId();
+        String url = "/api/products/" + id;
+
+        String etag = etag(url);
+        assertNotModifiedWithoutQueries(url, etag);
+
+        productService.adjustStock(id, -1);
+        String changed = fetch(url, etag).getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(changed);
+        assertNotEquals(etag, changed);
+        assertNotModifiedWithoutQueries(url, changed);
+    }
+
+    @Test
+    void aggregatesAndCategoriesFollowTheirTables() throws Exception {
+        String aggregates = etag("/api/products/aggregates");
+        String categories = etag("/api/categories");
+        String counted = etag("/api/categories?includeProductCount=true");
+        assertNotModifiedWithoutQueries("/api/products/aggregates", aggregates);
+        assertNotModifiedWithoutQueries("/api/categories", categories);
+        assertNotModifiedWithoutQueries("/api/categories?includeProductCount=true", counted);
+
+        Product product = new Product();
+        product.setName("etag aggregate product");
+        product.setPrice(2.0);
+        product.setQuantity(3);
+        productService.createProduct(product);
+        assertEquals(200, fetch("/api/products/aggregates", aggregates).getResponse().getStatus());
+        assertEquals(304, fetch("/api/categories", categories).getResponse().getStatus());
+        assertEquals(200, fetch("/api/categories?includeProductCount=true", counted).getResponse().getStatus());
+
+        categoryService.createCategory(new Category(null, "etag category", "conditional get", null, null, null));
+        assertEquals(200, fetch("/api/categories", categories).getResponse().getStatus());
+    }
+
+    private String etag(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag, url + " sent no ETag");
+        return etag;
+    }
+
+    private void assertNotModifiedWithoutQueries(String url, String etag) throws Exception {
+        // QueryCountFilter resets the counter when the request starts; MockMvc runs it on this thread
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+        assertEquals(0, QueryCounter.current(), url + " queried the database for a 304");
+    }
+
+    private MvcResult fetch(String url, String etag) throws Exception {
+        return mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+    }
+}
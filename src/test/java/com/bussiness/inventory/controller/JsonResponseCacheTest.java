@@ -0,0 +1,93 @@
+package com.bussiness.inventory.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bussiness.inventory.model.Category;
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.service.CategoryService;
+import com.bussiness.inventory.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class JsonResponseCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repeatedGetsReuseEncodedBytesUntilTheVersionMoves() throws Exception {
+        Product product = new Product();
+        product.setName("encoded saw");
+        product.setPrice(12.0);
+        product.setQuantity(3);
+        Long id = productService.createProduct(product).getId();
+
+        byte[] first = body("/api/products/" + id);
+        double hits = hits();
+        byte[] second = body("/api/products/" + id);
+        assertEquals(hits + 1, hits());
+        assertArrayEquals(first, second);
+        // the same bytes the normal serialization path would have written
+        assertArrayEquals(objectMapper.writeValueAsBytes(productService.getProduct(id).orElseThrow()), second);
+
+        productService.adjustStock(id, 4);
+        mockMvc.perform(get("/api/products/" + id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.quantity").value(7))
+                .andExpect(jsonPath("$.version").value(1));
+
+        String before = new String(body("/api/categories"));
+        Category category = new Category();
+        category.setName("encoded clamps");
+        categoryService.createCategory(category);
+        String after = new String(body("/api/categories"));
+        assertTrue(!before.contains("encoded clamps") && after.contains("encoded clamps"));
+
+        Category described = new Category();
+        described.setName("encoded clamps");
+        described.setDescription("bar and pipe clamps");
+        categoryService.updateCategory(category.getId(), described);
+        assertTrue(new String(body("/api/categories")).contains("bar and pipe clamps"));
+    }
+
+    private byte[] body(String url) throws Exception {
+        return mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    private double hits() {
+        return meterRegistry.get("inventory.json.cache").tag("result", "hit").counter().count();
+    }
+}
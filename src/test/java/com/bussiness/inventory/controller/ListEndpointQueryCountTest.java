@@ -0,0 +1,92 @@
+package com.bussiness.inventory.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bussiness.inventory.cache.CategoryCache;
+import com.bussiness.inventory.metrics.QueryCounter;
+import com.bussiness.inventory.model.Category;
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.service.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class ListEndpointQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Test
+    void listEndpointsIssueConstantNumberOfStatements() throws Exception {
+        Category category = seed("qc-small", 1, 1);
+        Map<String, Long> small = countStatements(category.getId());
+
+        seed("qc-large", 10, 10);
+        Map<String, Long> large = countStatements(category.getId());
+
+        assertEquals(small, large);
+        // paged endpoints are answered from the search index and sorted view, so none needs a count query
+        large.forEach((endpoint, statements) ->
+                assertEquals(1L, statements, endpoint + " issued " + statements + " statements"));
+    }
+
+    private Map<String, Long> countStatements(Long categoryId) throws Exception {
+        String[] endpoints = {
+                "/api/products?size=1000",
+                "/api/products/search?name=qc&size=1000",
+                "/api/products/price-range?minPrice=0&maxPrice=100000",
+                "/api/products/low-stock?threshold=1000",
+                "/api/products/out-of-stock",
+                "/api/products/premium-stock?price=0",
+                "/api/products/category/" + categoryId,
+                "/api/categories",
+                "/api/categories?includeProductCount=true"
+        };
+        Map<String, Long> counts = new LinkedHashMap<>();
+        // measure the plain category list on a cold cache; warm it is served without statements
+        categoryCache.invalidate();
+        for (String endpoint : endpoints) {
+            // QueryCountFilter resets the counter when the request starts; MockMvc runs it on this thread
+            mockMvc.perform(get(endpoint)).andExpect(status().is2xxSuccessful());
+            counts.put(endpoint, (long) QueryCounter.current());
+        }
+        return counts;
+    }
+
+    private Category seed(String prefix, int categories, int productsPerCategory) {
+        Category first = null;
+        for (int c = 0; c < categories; c++) {
+            for (int p = 0; p < productsPerCategory; p++) {
+                Product product = new Product();
+                product.setName(prefix + " item " + c + "-" + p);
+                product.setPrice(10.0 + p);
+                product.setQuantity(p);
+                Product saved = productService.createProductWithCategoryName(product, prefix + " category " + c);
+                if (first == null) {
+                    first = saved.getCategory();
+                }
+            }
+        }
+        return first;
+    }
+}
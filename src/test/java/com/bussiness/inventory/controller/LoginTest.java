@@ -0,0 +1,64 @@
+package com.bussiness.inventory.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.bussiness.inventory.dto.SignupRequest;
+import com.bussiness.inventory.repository.UserRepository;
+import com.bussiness.inventory.service.LastLoginRecorder;
+import com.bussiness.inventory.service.UserService;
+
+// flushes only when the test asks, so the write-behind is observable
+@SpringBootTest(properties = "inventory.auth.last-login-flush-ms=3600000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Test
+    void loginCompletesOffTheRequestThreadAndStampsLastLoginLater() throws Exception {
+        userService.signup(new SignupRequest("Login", "Test", "logintest", "login@example.com", "secret1", "USER"));
+
+        MvcResult started = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"logintest\",\"password\":\"secret1\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty());
+
+        MvcResult wrong = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"logintest\",\"password\":\"wrong-one\"}"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(wrong)).andExpect(status().isUnauthorized());
+
+        assertNull(userRepository.findByUsername("logintest").orElseThrow().getLastlogin());
+        lastLoginRecorder.flush();
+        assertNotNull(userRepository.findByUsername("logintest").orElseThrow().getLastlogin());
+    }
+}
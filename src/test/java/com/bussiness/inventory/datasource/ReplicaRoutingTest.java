@@ -0,0 +1,131 @@
+package com.bussiness.inventory.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bussiness.inventory.annotation.ReplicaRead;
+
+// two more in-memory H2 databases stand in for the replicas; select database() tells which one answered
+@SpringBootTest(properties = {
+        "inventory.datasource.replicas.urls=" + ReplicaRoutingTest.REPLICA_A + "," + ReplicaRoutingTest.REPLICA_B,
+        "inventory.datasource.replicas.lag-query=select lag_ms from replica_lag",
+        "inventory.datasource.replicas.lag-check-interval-ms=3600000"})
+@ActiveProfiles("test")
+@Import(ReplicaRoutingTest.Reads.class)
+class ReplicaRoutingTest {
+
+    static final String REPLICA_A = "jdbc:h2:mem:replica-a;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_B = "jdbc:h2:mem:replica-b;DB_CLOSE_DELAY=-1";
+
+    static class Reads {
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @ReplicaRead
+        public String database() {
+            return jdbcTemplate.queryForObject("select database()", String.class);
+        }
+    }
+
+    @Autowired
+    private Reads reads;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaSet replicaSet;
+
+    @BeforeAll
+    static void createReplicas() throws SQLException {
+        for (String url : List.of(REPLICA_A, REPLICA_B)) {
+            execute(url, "create table replica_lag (lag_ms bigint)");
+            execute(url, "insert into replica_lag values (0)");
+        }
+    }
+
+    @AfterEach
+    void catchUp() throws SQLException {
+        SecurityContextHolder.clearContext();
+        setLag(REPLICA_A, 0);
+        setLag(REPLICA_B, 0);
+    }
+
+    @Test
+    void replicaReadsRotateAndEverythingElseUsesThePrimary() {
+        Set<String> replicas = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            replicas.add(reads.database());
+        }
+        assertEquals(Set.of("REPLICA-A", "REPLICA-B"), replicas);
+
+        String primary = jdbcTemplate.queryForObject("select database()", String.class);
+        assertFalse(primary.startsWith("REPLICA"));
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        assertEquals(primary, ReplicaRouting.replicaReads(() -> readWrite.execute(status -> reads.database())));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        assertEquals("REPLICA", ReplicaRouting.replicaReads(() -> readOnly.execute(status -> reads.database())).substring(0, 7));
+    }
+
+    @Test
+    void laggingReplicasAreSkipped() throws SQLException {
+        setLag(REPLICA_A, 60_000);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("REPLICA-B", reads.database());
+        }
+        setLag(REPLICA_B, 60_000);
+        assertFalse(reads.database().startsWith("REPLICA"));
+    }
+
+    @Test
+    void writersReadFromThePrimaryUntilReplicasCatchUp() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("writer", null, List.of()));
+        assertEquals("REPLICA", reads.database().substring(0, 7));
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> jdbcTemplate.update("update products set name = name where id = -1"));
+        assertFalse(reads.database().startsWith("REPLICA"));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("reader", null, List.of()));
+        assertEquals("REPLICA", reads.database().substring(0, 7));
+    }
+
+    private void setLag(String url, long lagMs) throws SQLException {
+        execute(url, "update replica_lag set lag_ms = " + lagMs);
+        replicaSet.checkLag();
+    }
+
+    private static void execute(String url, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", ""); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.bussiness.inventory.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReplicaSetTest {
+
+    private static ReplicaSet replicaSet(List<String> urls, String selection) {
+        return replicaSet(urls, selection, 1000);
+    }
+
+    private static ReplicaSet replicaSet(List<String> urls, String selection, long lagCheckIntervalMs) {
+        return new ReplicaSet(new SimpleMeterRegistry(), urls, "sa", "", 2, selection, 1000, lagCheckIntervalMs, "select 0");
+    }
+
+    @Test
+    void leastConnectionsPicksTheLessBusyReplica() throws Exception {
+        ReplicaSet replicas = replicaSet(List.of("jdbc:h2:mem:least-a;DB_CLOSE_DELAY=-1", "jdbc:h2:mem:least-b;DB_CLOSE_DELAY=-1"),
+                "least-connections");
+        try {
+            ReplicaSet.Replica first = replicas.replicas().get(0);
+            ReplicaSet.Replica second = replicas.replicas().get(1);
+            try (Connection busy = first.dataSource.getConnection()) {
+                for (int i = 0; i < 4; i++) {
+                    assertEquals(second.name, replicas.choose(null).name);
+                }
+            }
+            try (Connection busy = second.dataSource.getConnection()) {
+                for (int i = 0; i < 4; i++) {
+                    assertEquals(first.name, replicas.choose(null).name);
+                }
+            }
+        } finally {
+            replicas.close();
+        }
+    }
+
+    // a reading is only trusted for two check intervals: a replica nobody has checked since is skipped
+    @Test
+    void replicasWithAnOldLagReadingAreSkipped() {
+        ReplicaSet replicas = replicaSet(List.of("jdbc:h2:mem:stale-a;DB_CLOSE_DELAY=-1"), "round-robin", 60_000);
+        try {
+            assertNotNull(replicas.choose(null));
+            replicas.replicas().get(0).checkedAt -= TimeUnit.MINUTES.toNanos(3);
+            assertNull(replicas.choose(null));
+            replicas.checkLag();
+            assertNotNull(replicas.choose(null));
+        } finally {
+            replicas.close();
+        }
+    }
+
+    @Test
+    void urlsWithOnlyBlankEntriesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> replicaSet(List.of(" ", ""), "round-robin"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.bussiness.inventory.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ChangeFeedTest {
+
+    @Test
+    void readersFurtherBehindThanTheLogAreTruncated() {
+        ChangeLog log = new ChangeLog(3);
+        for (int i = 0; i < 5; i++) {
+            log.append("product", sequence -> "{\"sequence\":" + sequence + "}");
+        }
+
+        assertTrue(log.after(1, 10).truncated());
+        assertEquals(List.of(3L, 4L, 5L), sequences(log.after(2, 10)));
+        assertEquals(List.of(4L), sequences(log.after(3, 1)));
+        assertFalse(log.after(5, 10).truncated());
+        assertTrue(log.after(5, 10).entries().isEmpty());
+        // a sequence this log never issued, e.g. from before a restart without a journal
+        assertTrue(log.after(6, 10).truncated());
+    }
+
+    @Test
+    void journalKeepsSequencesAcrossRestarts(@TempDir Path directory) throws Exception {
+        Path journal = directory.resolve("changes.jsonl");
+        ChangeFeed feed = feed(journal);
+        for (long id = 1; id <= 10; id++) {
+            feed.onCategoryChange(CategoryChangeEvent.deleted(id));
+        }
+        // written behind by the journal thread, without waiting for shutdown
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!lastLine(journal).contains("\"sequence\":10")) {
+            assertTrue(System.currentTimeMillis() < deadline, "journal was not written behind");
+            Thread.sleep(20);
+        }
+        feed.shutdown();
+
+        List<String> lines = Files.readAllLines(journal);
+        assertTrue(lines.size() < 10, "journal was not compacted: " + lines.size() + " lines");
+        assertTrue(lines.get(lines.size() - 1).contains("\"sequence\":10"));
+
+        ChangeFeed restarted = feed(journal);
+        try {
+            assertEquals(10, restarted.latestSequence());
+            restarted.onCategoryChange(CategoryChangeEvent.deleted(11L));
+            assertEquals(11, restarted.latestSequence());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    private static ChangeFeed feed(Path journal) {
+        return new ChangeFeed(new ObjectMapper(), new SimpleMeterRegistry(), 4, journal.toString(), 1, 8, 60000, 10000);
+    }
+
+    private static String lastLine(Path journal) throws IOException {
+        List<String> lines = Files.readAllLines(journal);
+        return lines.isEmpty() ? "" : lines.get(lines.size() - 1);
+    }
+
+    private static List<Long> sequences(ChangeLog.Batch batch) {
+        return batch.entries().stream().map(ChangeLog.Entry::sequence).toList();
+    }
+}
@@ -0,0 +1,73 @@
+package com.bussiness.inventory.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class RequestMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // other tests in the same context call these endpoints too, so only the change is asserted
+    @Test
+    void recordsLatencyQueriesAndErrorsPerEndpoint() throws Exception {
+        double queriesBefore = premiumStockQueries();
+        long callsBefore = premiumStockCalls();
+        double errorsBefore = errors("IllegalArgumentException");
+        mockMvc.perform(get("/api/products/premium-stock?price=0")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/search").param("name", " ")).andExpect(status().isBadRequest());
+
+        assertEquals(queriesBefore + 1, premiumStockQueries());
+        assertEquals(callsBefore + 1, premiumStockCalls());
+        assertEquals(errorsBefore + 1, errors("IllegalArgumentException"));
+
+        mockMvc.perform(get("/actuator/metrics/inventory.db.queries").param("tag", "uri:/api/products/premium-stock"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/inventory.service.calls").param("tag", "method:getPremiumStock"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/inventory.service.calls.percentile")
+                        .param("tag", "method:getPremiumStock").param("tag", "phi:0.999"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/inventory.errors").param("tag", "exception:IllegalArgumentException"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/http.server.requests.percentile").param("tag", "phi:0.99"))
+                .andExpect(status().isOk());
+    }
+
+    private double premiumStockQueries() {
+        return meterRegistry.find("inventory.db.queries").tag("uri", "/api/products/premium-stock").summaries().stream()
+                .mapToDouble(DistributionSummary::totalAmount).sum();
+    }
+
+    // summed over every method, so an exception counted at more than one layer shows up
+    private double errors(String exception) {
+        return meterRegistry.find("inventory.errors").tag("exception", exception).counters().stream()
+                .mapToDouble(Counter::count).sum();
+    }
+
+    private long premiumStockCalls() {
+        return meterRegistry.find("inventory.service.calls").tag("method", "getPremiumStock").timers().stream()
+                .mapToLong(Timer::count).sum();
+    }
+}
@@ -0,0 +1,119 @@
+package com.bussiness.inventory.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.bussiness.inventory.cache.CategoryCache;
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.repository.ProductRepository;
+import com.bussiness.inventory.service.InventoryAggregateService;
+import com.bussiness.inventory.service.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class InventoryValuationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private InventoryAggregateService inventoryAggregateService;
+
+    @Test
+    void decimalSumIsExactWhereDoublesDrift() {
+        DecimalSum tenths = new DecimalSum();
+        double drifting = 0;
+        for (int i = 0; i < 10; i++) {
+            tenths.add(0.1, 1);
+            drifting += 0.1;
+        }
+        assertEquals(0, new BigDecimal("1").compareTo(tenths.value()));
+        assertEquals(0.9999999999999999, drifting);
+
+        DecimalSum fine = new DecimalSum();
+        fine.add(0.00001, 3);
+        fine.add(2.5, 2);
+        assertEquals(0, new BigDecimal("5.00003").compareTo(fine.value()));
+
+        DecimalSum large = new DecimalSum();
+        for (int i = 0; i < 5; i++) {
+            large.add(100_000.0, Integer.MAX_VALUE);
+        }
+        large.addAll(fine);
+        assertEquals(0, new BigDecimal("1073741823500005.00003").compareTo(large.value()));
+    }
+
+    @Test
+    void categoryAndTotalRowsAddUp() throws Exception {
+        Long categoryId = categoryCache.getOrCreate("valuation drills", null).getId();
+        create(categoryId, "tenth drill", 0.1, 3, null);
+        create(categoryId, "low drill", 19.99, 5, null);
+        create(categoryId, "empty drill", 250.0, 0, null);
+        create(categoryId, "pricey drill", 1200.0, 40, null);
+        create(categoryId, "own threshold drill", 5.5, 3, 2);
+
+        Map<String, String[]> rows = report();
+        assertEquals(List.of("category", categoryId.toString(), "valuation drills", "5", "51", "48116.75", "0.1", "295.12",
+                "1200", "2", "1"), List.of(rows.get("category/" + categoryId)));
+
+        String[] total = rows.get("total/");
+        assertEquals(Long.toString(productRepository.count()), total[3]);
+        assertEquals(inventoryAggregateService.getTotalValue().setScale(2, RoundingMode.HALF_EVEN).toPlainString(), total[5]);
+        long banded = rows.entrySet().stream().filter(row -> row.getKey().startsWith("price_band/"))
+                .mapToLong(row -> Long.parseLong(row.getValue()[3])).sum();
+        assertEquals(Long.parseLong(total[3]), banded);
+    }
+
+    private void create(Long categoryId, String name, double price, int quantity, Integer reorderThreshold) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setQuantity(quantity);
+        product.setReorderThreshold(reorderThreshold);
+        productService.createProductWithCategory(product, categoryId);
+    }
+
+    // rows by dimension/key, fields split naively: the names used here hold no commas
+    private Map<String, String[]> report() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/products/valuation")).andReturn();
+        String csv = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        String[] lines = csv.split("\n");
+        assertEquals("dimension,key,name,products,units,value,min_price,avg_price,max_price,low_stock,out_of_stock", lines[0]);
+        Map<String, String[]> rows = new HashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            String[] fields = lines[i].split(",", -1);
+            rows.put(fields[0] + "/" + fields[1], fields);
+        }
+        return rows;
+    }
+}
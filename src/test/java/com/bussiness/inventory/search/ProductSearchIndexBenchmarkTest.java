@@ -0,0 +1,79 @@
+package com.bussiness.inventory.search;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// mvn test -Dtest=ProductSearchIndexBenchmarkTest -Dbenchmarks=true [-Dbenchmark.products=1000000]
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ProductSearchIndexBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexBenchmarkTest.class);
+
+    private static final String[] SYLLABLES = {
+            "ka", "ro", "mi", "ten", "sal", "dur", "vex", "lo", "pra", "quin", "bel", "tor", "zan", "fi", "gus", "hem"
+    };
+
+    @Test
+    void searchLatencyAtScale() {
+        int products = Integer.getInteger("benchmark.products", 1_000_000);
+        int warmup = 2_000;
+        int queries = 5_000;
+        Random random = new Random(42);
+        String[] words = vocabulary(random, 4_000);
+        ProductSearchIndex index = new ProductSearchIndex(0.5, 32);
+
+        long start = System.nanoTime();
+        for (long id = 1; id <= products; id++) {
+            index.put(id, words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " "
+                    + words[random.nextInt(words.length)]);
+        }
+        logger.info("indexed {} products in {} ms", products, (System.nanoTime() - start) / 1_000_000);
+
+        for (int q = 0; q < warmup; q++) {
+            index.search(randomQuery(random, words), 0, 20);
+        }
+        long[] latencies = new long[queries];
+        for (int q = 0; q < queries; q++) {
+            String query = randomQuery(random, words);
+            long begin = System.nanoTime();
+            index.search(query, 0, 20);
+            latencies[q] = System.nanoTime() - begin;
+        }
+        Arrays.sort(latencies);
+        logger.info("{} queries over {} products: p50 {} us, p99 {} us, max {} us", queries, products,
+                latencies[queries / 2] / 1000, latencies[(int) (queries * 0.99)] / 1000, latencies[queries - 1] / 1000);
+    }
+
+    private String[] vocabulary(Random random, int size) {
+        String[] words = new String[size];
+        for (int w = 0; w < size; w++) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int i = 0; i < syllables; i++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[w] = word.toString();
+        }
+        return words;
+    }
+
+    // a mix of what a search box sends: partial words, whole words and words with one typo
+    private String randomQuery(Random random, String[] words) {
+        String word = words[random.nextInt(words.length)];
+        switch (random.nextInt(3)) {
+            case 0:
+                return word.substring(0, Math.max(3, random.nextInt(word.length()) + 1));
+            case 1:
+                return words[random.nextInt(words.length)] + " " + word;
+            default:
+                char[] chars = word.toCharArray();
+                chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+                return new String(chars);
+        }
+    }
+}
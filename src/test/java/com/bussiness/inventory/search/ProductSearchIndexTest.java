@@ -0,0 +1,77 @@
+package com.bussiness.inventory.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(0.5, 32);
+        index.put(1, "Claw Hammer");
+        index.put(2, "Hammer");
+        index.put(3, "Sledge Hammer 10lb");
+        index.put(4, "Hand Saw");
+        index.put(5, "Screwdriver Set");
+    }
+
+    @Test
+    void matchesPrefixOfLastWord() {
+        ProductSearchIndex.SearchHits hits = index.search("ham", 0, 10);
+        assertEquals(3, hits.total());
+        assertEquals(2L, hits.productIds().get(0));
+    }
+
+    @Test
+    void toleratesTypos() {
+        assertTrue(index.search("hamner", 0, 10).productIds().contains(2L));
+        assertTrue(index.search("screwdiver", 0, 10).productIds().contains(5L));
+    }
+
+    @Test
+    void ranksNamesStartingWithQueryFirst() {
+        List<Long> ids = index.search("hammer", 0, 10).productIds();
+        assertEquals(List.of(2L, 1L, 3L), ids);
+    }
+
+    @Test
+    void paginatesRankedResults() {
+        assertEquals(List.of(2L, 1L), index.search("hammer", 0, 2).productIds());
+        assertEquals(List.of(3L), index.search("hammer", 1, 2).productIds());
+    }
+
+    @Test
+    void rejectsPagesPastIntRangeWithoutAllocatingForThem() {
+        assertEquals(List.of(), index.search("hammer", 100_000_000, 10).productIds());
+        assertThrows(IllegalArgumentException.class, () -> index.search("hammer", Integer.MAX_VALUE, 1000));
+    }
+
+    @Test
+    void followsRenamesAndDeletes() {
+        index.put(2, "Mallet");
+        index.remove(1);
+        assertEquals(List.of(3L), index.search("hammer", 0, 10).productIds());
+        assertEquals(List.of(2L), index.search("mallet", 0, 10).productIds());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void compactionKeepsResults() {
+        for (long id = 100; id < 30_100; id++) {
+            index.put(id, "temporary item " + id);
+        }
+        for (long id = 100; id < 30_100; id++) {
+            index.remove(id);
+        }
+        assertEquals(5, index.size());
+        assertEquals(List.of(2L, 1L, 3L), index.search("hammer", 0, 10).productIds());
+    }
+}
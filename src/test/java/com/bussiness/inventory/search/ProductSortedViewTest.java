@@ -0,0 +1,165 @@
+package com.bussiness.inventory.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.bussiness.inventory.event.ProductSnapshot;
+
+class ProductSortedViewTest {
+
+    @Test
+    void answersRangesInValueThenIdOrder() {
+        ProductSortedView view = new ProductSortedView(1000);
+        view.loadPrice(3, 5.0);
+        view.loadPrice(1, 10.0);
+        view.loadPrice(2, 10.0);
+        view.loadPrice(4, 20.0);
+        view.finishLoading();
+
+        assertEquals(List.of(1L, 2L), view.priceRange(10.0, 10.0, 0, 10).productIds());
+        assertEquals(List.of(3L, 1L, 2L, 4L), view.priceRange(0, 100, 0, 10).productIds());
+        ProductSortedView.Slice page = view.priceRange(0, 100, 1, 2);
+        assertEquals(4, page.total());
+        assertEquals(List.of(1L, 2L), page.productIds());
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomWrites() {
+        Random random = new Random(7);
+        // a small threshold so the run crosses several rebuilds
+        ProductSortedView view = new ProductSortedView(64);
+        Map<Long, ProductSnapshot> products = new HashMap<>();
+        List<ProductSnapshot> initial = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            ProductSnapshot product = new ProductSnapshot(id, "p" + id, (double) random.nextInt(100), random.nextInt(20), null, null, null);
+            initial.add(product);
+            products.put(id, product);
+        }
+        initial.stream().sorted(Comparator.comparing(ProductSnapshot::price).thenComparing(ProductSnapshot::id))
+                .forEach(product -> view.loadPrice(product.id(), product.price()));
+        initial.stream().sorted(Comparator.comparing(ProductSnapshot::quantity).thenComparing(ProductSnapshot::id))
+                .forEach(product -> view.loadQuantity(product.id(), product.quantity()));
+        view.finishLoading();
+
+        long nextId = 501;
+        for (int step = 0; step < 5000; step++) {
+            int action = random.nextInt(10);
+            if (action == 0) {
+                ProductSnapshot created = new ProductSnapshot(nextId, "p" + nextId, (double) random.nextInt(100), random.nextInt(20), null, null, null);
+                products.put(nextId++, created);
+                view.update(created.id(), null, created);
+            } else if (action == 1 && !products.isEmpty()) {
+                ProductSnapshot deleted = products.remove(anyId(products, random));
+                view.update(deleted.id(), deleted, null);
+            } else if (!products.isEmpty()) {
+                ProductSnapshot before = products.get(anyId(products, random));
+                ProductSnapshot after = action < 6
+                        ? before.withQuantity(random.nextInt(20))
+                        : new ProductSnapshot(before.id(), before.name(), (double) random.nextInt(100), before.quantity(), null, null, null);
+                products.put(after.id(), after);
+                view.update(after.id(), before, after);
+            }
+
+            if (step % 50 == 0) {
+                double low = random.nextInt(100);
+                double high = low + random.nextInt(30);
+                int offset = random.nextInt(20);
+                assertSlice(expected(products, p -> p.price() >= low && p.price() <= high, ProductSnapshot::price), offset,
+                        view.priceRange(low, high, offset, 25));
+                int threshold = random.nextInt(20);
+                assertSlice(expected(products, p -> p.quantity() < threshold, p -> (double) p.quantity()), offset,
+                        view.quantityRange(Long.MIN_VALUE, threshold - 1L, offset, 25));
+            }
+        }
+    }
+
+    @Test
+    void writesDuringTheLoadWaitForItToFinish() {
+        ProductSortedView view = new ProductSortedView(4);
+        Map<Long, ProductSnapshot> products = new HashMap<>();
+        for (long id = 1; id <= 40; id++) {
+            products.put(id, new ProductSnapshot(id, "p" + id, (double) id, (int) id, null, null, null));
+        }
+        List<ProductSnapshot> byPrice = products.values().stream().sorted(Comparator.comparing(ProductSnapshot::id)).toList();
+        for (ProductSnapshot product : byPrice.subList(0, 20)) {
+            view.loadPrice(product.id(), product.price());
+        }
+
+        // more than the threshold of writes while the rows are still streaming in: already loaded and not yet
+        // loaded products change, some go away and new ones appear. The service skips changed ids in the load
+        Set<Long> changed = new HashSet<>();
+        for (long id : List.of(3L, 7L, 25L, 31L, 38L)) {
+            ProductSnapshot before = products.get(id);
+            ProductSnapshot after = new ProductSnapshot(id, before.name(), 100.0 - id, before.quantity() + 1, null, null, null);
+            view.update(id, id <= 20 ? before : null, after);
+            products.put(id, after);
+            changed.add(id);
+        }
+        for (long id : List.of(10L, 30L)) {
+            view.update(id, id <= 20 ? products.get(id) : null, null);
+            products.remove(id);
+            changed.add(id);
+        }
+        for (long id = 41; id <= 43; id++) {
+            ProductSnapshot created = new ProductSnapshot(id, "p" + id, 0.5 * id, 1, null, null, null);
+            view.update(id, null, created);
+            products.put(id, created);
+            changed.add(id);
+        }
+
+        for (ProductSnapshot product : byPrice.subList(20, 40)) {
+            if (!changed.contains(product.id())) {
+                view.loadPrice(product.id(), product.price());
+            }
+        }
+        products.values().stream().sorted(Comparator.comparing(ProductSnapshot::quantity).thenComparing(ProductSnapshot::id))
+                .filter(product -> !changed.contains(product.id()))
+                .forEach(product -> view.loadQuantity(product.id(), product.quantity()));
+        view.finishLoading();
+
+        assertSlice(expected(products, p -> true, ProductSnapshot::price), 0, view.priceRange(0, 1000, 0, 25));
+        assertSlice(expected(products, p -> true, ProductSnapshot::price), 20, view.priceRange(0, 1000, 20, 25));
+        assertSlice(expected(products, p -> true, p -> (double) p.quantity()), 0,
+                view.quantityRange(Long.MIN_VALUE, Long.MAX_VALUE, 0, 25));
+
+        // and later writes rebuild as usual
+        for (long id = 1; id <= 6; id++) {
+            ProductSnapshot before = products.get(id);
+            if (before != null) {
+                ProductSnapshot after = new ProductSnapshot(id, before.name(), before.price() + 50, before.quantity(), null, null, null);
+                view.update(id, before, after);
+                products.put(id, after);
+            }
+        }
+        assertSlice(expected(products, p -> true, ProductSnapshot::price), 0, view.priceRange(0, 1000, 0, 25));
+    }
+
+    private static void assertSlice(List<Long> expected, int offset, ProductSortedView.Slice actual) {
+        assertEquals(expected.size(), actual.total());
+        assertEquals(expected.subList(Math.min(offset, expected.size()), Math.min(offset + 25, expected.size())), actual.productIds());
+    }
+
+    private static List<Long> expected(Map<Long, ProductSnapshot> products, Predicate<ProductSnapshot> filter,
+                                       Function<ProductSnapshot, Double> value) {
+        return products.values().stream().filter(filter)
+                .sorted(Comparator.comparing(value).thenComparing(ProductSnapshot::id))
+                .map(ProductSnapshot::id).toList();
+    }
+
+    private static long anyId(Map<Long, ProductSnapshot> products, Random random) {
+        List<Long> ids = new ArrayList<>(products.keySet());
+        return ids.get(random.nextInt(ids.size()));
+    }
+}
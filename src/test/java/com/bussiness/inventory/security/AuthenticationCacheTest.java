@@ -0,0 +1,67 @@
+package com.bussiness.inventory.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bussiness.inventory.dto.SignupRequest;
+import com.bussiness.inventory.model.User;
+import com.bussiness.inventory.repository.UserRepository;
+import com.bussiness.inventory.service.UserService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthenticationCacheTest {
+
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // a request that loads the user after the change is flushed but before it commits still reads the old row;
+    // what it caches must not outlive the commit
+    @Test
+    void changedAndDeletedUsersAreNotServedFromTheCache() {
+        userService.signup(new SignupRequest("Cache", "Test", "cacheduser", "cached@example.com", "secret1", "USER"));
+        UserDetails first = principal("cacheduser");
+        assertEquals("ROLE_USER", role(first));
+        assertSame(first, principal("cacheduser"));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            User user = userRepository.findByUsername("cacheduser").orElseThrow();
+            user.setRole("ADMIN");
+            userRepository.saveAndFlush(user);
+            assertEquals("ROLE_USER", role(CompletableFuture.supplyAsync(() -> principal("cacheduser")).join()));
+        });
+        assertEquals("ROLE_ADMIN", role(principal("cacheduser")));
+
+        transaction.executeWithoutResult(status -> userRepository.delete(userRepository.findByUsername("cacheduser").orElseThrow()));
+        assertThrows(RuntimeException.class, () -> principal("cacheduser"));
+    }
+
+    private UserDetails principal(String username) {
+        return authenticationCache.principal(username, userService::findByUsername);
+    }
+
+    private static String role(UserDetails principal) {
+        return principal.getAuthorities().iterator().next().getAuthority();
+    }
+}
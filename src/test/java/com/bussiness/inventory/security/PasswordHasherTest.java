@@ -0,0 +1,51 @@
+package com.bussiness.inventory.security;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHasherTest {
+
+    @Test
+    void rejectsChecksBeyondTheQueueInsteadOfWaiting() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHasher hasher = new PasswordHasher(new BlockingEncoder(release), new SimpleMeterRegistry(), 1, 1);
+        try {
+            CompletableFuture<Boolean> running = hasher.matches("a", "a");
+            CompletableFuture<Boolean> queued = hasher.matches("b", "b");
+            assertThrows(RejectedExecutionException.class, () -> hasher.matches("c", "c"));
+
+            release.countDown();
+            assertTrue(running.get());
+            assertTrue(queued.get());
+            assertTrue(hasher.matches("d", "d").get());
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.bussiness.inventory.service;
+
+import static com.bussiness.inventory.TestProducts.createProduct;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryAggregateServiceTest {
+
+    @Autowired
+    private InventoryAggregateService inventoryAggregateService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // the scan runs once the adjustment has committed but before onProductChange has applied it: it sees the
+    // new quantity, and installing that would let the listener add the same change a second time
+    @Test
+    void reconcileBetweenCommitAndListenerDoesNotCountTheChangeTwice() {
+        Long id = createProduct(productService, "aggregate race", 2.5, 10).getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productService.adjustStock(id, 4);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    CompletableFuture.runAsync(inventoryAggregateService::reconcile).join();
+                }
+            });
+        });
+
+        BigDecimal maintained = inventoryAggregateService.getTotalValue();
+        inventoryAggregateService.reconcile();
+        assertEquals(0, inventoryAggregateService.getTotalValue().compareTo(maintained),
+                "maintained " + maintained + ", recounted " + inventoryAggregateService.getTotalValue());
+    }
+}
@@ -0,0 +1,76 @@
+package com.bussiness.inventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class LastLoginRecorderTest {
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(2026, 1, 5, 8, 0);
+    private static final LocalDateTime SECOND = FIRST.plusMinutes(5);
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createTable() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:last-login;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("create table users (id bigint primary key, lastlogin timestamp)");
+        jdbcTemplate.update("insert into users (id) values (1), (2), (3)");
+    }
+
+    @AfterEach
+    void dropTable() {
+        jdbcTemplate.execute("drop table users");
+    }
+
+    @Test
+    void keepsTheLastStampPerUserUntilFlushed() {
+        LastLoginRecorder recorder = new LastLoginRecorder(jdbcTemplate, 3_600_000, 1000);
+        recorder.record(1L, FIRST);
+        recorder.record(1L, SECOND);
+        assertNull(lastLogin(1L));
+
+        recorder.flush();
+        assertEquals(SECOND, lastLogin(1L));
+        recorder.flushOnShutdown();
+    }
+
+    @Test
+    void flushesEarlyOnceEnoughUsersAreWaiting() throws Exception {
+        LastLoginRecorder recorder = new LastLoginRecorder(jdbcTemplate, 3_600_000, 2);
+        recorder.record(1L, FIRST);
+        recorder.record(2L, FIRST);
+        for (int i = 0; i < 100 && lastLogin(2L) == null; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(FIRST, lastLogin(1L));
+        assertEquals(FIRST, lastLogin(2L));
+
+        recorder.record(3L, SECOND);
+        recorder.flushOnShutdown();
+        assertEquals(SECOND, lastLogin(3L));
+    }
+
+    @Test
+    void loginsAfterShutdownAreWrittenDirectly() {
+        LastLoginRecorder recorder = new LastLoginRecorder(jdbcTemplate, 3_600_000, 1);
+        recorder.flushOnShutdown();
+        recorder.record(1L, FIRST);
+        recorder.record(2L, SECOND);
+        assertEquals(FIRST, lastLogin(1L));
+        assertEquals(SECOND, lastLogin(2L));
+    }
+
+    private LocalDateTime lastLogin(long id) {
+        Timestamp stamp = jdbcTemplate.queryForObject("select lastlogin from users where id = ?", Timestamp.class, id);
+        return stamp == null ? null : stamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,70 @@
+package com.bussiness.inventory.service;
+
+import static com.bussiness.inventory.TestProducts.createProduct;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bussiness.inventory.dto.ProductSummary;
+import com.bussiness.inventory.dto.ProductSummaryPage;
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.repository.ProductRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PremiumStockTest {
+
+    // far above anything other tests create, so only this test's products qualify
+    private static final double THRESHOLD = 1_000_000_000.0;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void unitValueFollowsEveryWriteAndOrdersPremiumStock() {
+        Long cheap = createProduct(productService, "premium cheap", 4 * THRESHOLD, 2).getId();
+        Long dear = createProduct(productService, "premium dear", 9 * THRESHOLD, 3).getId();
+        Long single = createProduct(productService, "premium single", 1.5 * THRESHOLD, 1).getId();
+        assertEquals(List.of(dear, cheap, single), premiumIds(productService.getPremiumStock(THRESHOLD, null, null, null)));
+
+        // stock writes go through the bulk update, which recomputes unit value in the same statement
+        productService.adjustStock(dear, 6);
+        assertEquals(THRESHOLD, productRepository.findById(dear).orElseThrow().getUnitValue());
+        assertEquals(List.of(cheap, single), premiumIds(productService.getPremiumStock(THRESHOLD, null, null, null)));
+
+        productService.adjustStock(single, -1);
+        assertNull(productRepository.findById(single).orElseThrow().getUnitValue());
+
+        Product update = new Product();
+        update.setName("premium dear");
+        update.setPrice(90 * THRESHOLD);
+        update.setQuantity(9);
+        productService.updateProduct(dear, update);
+
+        ProductSummaryPage all = productService.getPremiumStock(THRESHOLD, 0, 1, null);
+        assertEquals(2, all.getTotal());
+        assertEquals(List.of(dear), premiumIds(all));
+        assertEquals(List.of(dear), premiumIds(productService.getPremiumStock(THRESHOLD, null, null, 1)));
+        assertEquals(List.of(cheap), premiumIds(productService.getPremiumStock(THRESHOLD, 1, 1, null)));
+    }
+
+    @Test
+    void topCannotBeCombinedWithPaging() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getPremiumStock(THRESHOLD, 0, 10, 5));
+        assertThrows(IllegalArgumentException.class, () -> productService.getPremiumStock(THRESHOLD, null, null, 0));
+    }
+
+    private static List<Long> premiumIds(ProductSummaryPage page) {
+        return page.getItems().stream().map(ProductSummary::getId).toList();
+    }
+}
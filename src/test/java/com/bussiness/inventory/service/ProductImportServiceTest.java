@@ -0,0 +1,40 @@
+package com.bussiness.inventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bussiness.inventory.cache.ResourceVersions;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // the created event carries the version the row was stored with, so listeners know it without a query
+    @Test
+    void importedProductsArePublishedWithTheirStoredVersion() throws Exception {
+        String csv = "name,price,quantity,category\nimported version,4.5,7,\n";
+        productImportService.importProducts(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                ProductImportService.Format.CSV);
+
+        Long id = jdbcTemplate.queryForObject("select id from products where name = 'imported version'", Long.class);
+        assertEquals(0L, jdbcTemplate.queryForObject("select version from products where id = ?", Long.class, id));
+        assertEquals(resourceVersions.productTag(id, 0L), resourceVersions.productTag(id));
+    }
+}
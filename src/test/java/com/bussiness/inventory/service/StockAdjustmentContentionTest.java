@@ -0,0 +1,122 @@
+package com.bussiness.inventory.service;
+
+import static com.bussiness.inventory.TestProducts.createProduct;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bussiness.inventory.dto.StockAdjustmentRequest;
+import com.bussiness.inventory.repository.ProductRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockAdjustmentContentionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockAdjustmentContentionTest.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void concurrentDecrementsOnHotSkuLoseNoUpdates() throws Exception {
+        int stock = 5000;
+        int oversold = 500;
+        int threads = 64;
+        Long id = createProduct(productService, "hot sku", 1.0, stock).getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        long[] latencies = new long[stock + oversold];
+        AtomicInteger next = new AtomicInteger();
+        for (int i = 0; i < stock + oversold; i++) {
+            pool.execute(() -> {
+                awaitQuietly(start);
+                long begin = System.nanoTime();
+                try {
+                    productService.adjustStock(id, -1);
+                    reserved.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                }
+                latencies[next.getAndIncrement()] = System.nanoTime() - begin;
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(2, TimeUnit.MINUTES);
+        long elapsedNanos = System.nanoTime() - begin;
+
+        assertEquals(stock, reserved.get());
+        assertEquals(oversold, rejected.get());
+        assertEquals(0, productRepository.findQuantityById(id).orElseThrow());
+
+        Arrays.sort(latencies);
+        logger.info("{} decrements on one sku with {} threads: {} ops/sec, p50 {} us, p99 {} us",
+                stock + oversold, threads, Math.round((stock + oversold) * 1e9 / elapsedNanos),
+                latencies[latencies.length / 2] / 1000, latencies[(int) (latencies.length * 0.99)] / 1000);
+    }
+
+    @Test
+    void opposingBatchesDoNotDeadlock() throws Exception {
+        Long first = createProduct(productService, "batch a", 1.0, 1000).getId();
+        Long second = createProduct(productService, "batch b", 1.0, 1000).getId();
+        List<StockAdjustmentRequest> forward = List.of(
+                new StockAdjustmentRequest(first, -1), new StockAdjustmentRequest(second, -1));
+        List<StockAdjustmentRequest> reverse = List.of(
+                new StockAdjustmentRequest(second, -1), new StockAdjustmentRequest(first, -1));
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 500; i++) {
+            List<StockAdjustmentRequest> batch = i % 2 == 0 ? forward : reverse;
+            pool.execute(() -> productService.adjustStock(batch));
+        }
+        pool.shutdown();
+        pool.awaitTermination(2, TimeUnit.MINUTES);
+
+        assertEquals(500, productRepository.findQuantityById(first).orElseThrow());
+        assertEquals(500, productRepository.findQuantityById(second).orElseThrow());
+    }
+
+    // these map to 400 and 404; the database is never asked to hold a quantity past int range
+    @Test
+    void outOfRangeDeltasAndUnknownProductsAreRejected() {
+        Long id = createProduct(productService, "range sku", 1.0, 10).getId();
+        assertThrows(IllegalArgumentException.class, () -> productService.adjustStock(id, Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> productService.adjustStock(List.of(
+                new StockAdjustmentRequest(id, Integer.MAX_VALUE), new StockAdjustmentRequest(id, 1))));
+        assertThrows(IllegalStateException.class, () -> productService.adjustStock(id, Integer.MIN_VALUE));
+        assertEquals(10, productRepository.findQuantityById(id).orElseThrow());
+        assertEquals(Integer.MAX_VALUE, productService.adjustStock(id, Integer.MAX_VALUE - 10).getQuantity());
+
+        assertThrows(NoSuchElementException.class, () -> productService.adjustStock(-1L, 1));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.bussiness.inventory.service;
+
+import static com.bussiness.inventory.TestProducts.createProduct;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bussiness.inventory.alert.StockAlert;
+import com.bussiness.inventory.model.Category;
+import com.bussiness.inventory.repository.ProductRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockAlertServiceTest {
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void alertsFollowStockAcrossTheProductThreshold() {
+        Long id = createProduct(productService, "alert product", 1.0, 10, product -> product.setReorderThreshold(5)).getId();
+        assertNull(open(id));
+
+        double lowBefore = sent(StockAlert.Type.LOW_STOCK);
+        productService.adjustStock(id, -6);
+        assertEquals(StockAlert.Type.LOW_STOCK, open(id).type());
+        assertEquals(5, open(id).threshold());
+
+        // still low: the open alert follows the quantity but nothing is sent again
+        productService.adjustStock(id, -1);
+        assertEquals(3, open(id).quantity());
+        assertEquals(lowBefore + 1, sent(StockAlert.Type.LOW_STOCK));
+
+        productService.adjustStock(id, -3);
+        assertEquals(StockAlert.Type.OUT_OF_STOCK, open(id).type());
+
+        double restockedBefore = sent(StockAlert.Type.RESTOCKED);
+        productService.adjustStock(id, 20);
+        assertNull(open(id));
+        assertEquals(restockedBefore + 1, sent(StockAlert.Type.RESTOCKED));
+    }
+
+    @Test
+    void categoryThresholdAppliesToProductsWithoutTheirOwn() {
+        Category category = new Category();
+        category.setName("alert category");
+        category.setReorderThreshold(3);
+        Category saved = categoryService.createCategory(category);
+
+        Long inheriting = createProduct(productService, "alert inheriting", 1.0, 5, product -> product.setCategory(saved)).getId();
+        Long own = createProduct(productService, "alert own", 1.0, 5, product -> {
+            product.setReorderThreshold(2);
+            product.setCategory(saved);
+        }).getId();
+        assertNull(open(inheriting));
+
+        saved.setReorderThreshold(6);
+        categoryService.updateCategory(saved.getId(), saved);
+        assertEquals(StockAlert.Type.LOW_STOCK, open(inheriting).type());
+        assertEquals(6, open(inheriting).threshold());
+        assertNull(open(own));
+    }
+
+    // the startup seed must pick up every product a change would raise an alert for
+    @Test
+    void outOfStockProductsAreSeededEvenWithAZeroThreshold() {
+        Long id = createProduct(productService, "alert zero threshold", 1.0, 0, product -> product.setReorderThreshold(0)).getId();
+        assertEquals(StockAlert.Type.OUT_OF_STOCK, open(id).type());
+        assertTrue(productRepository.findBelowReorderThreshold(0).stream().anyMatch(product -> product.id().equals(id)));
+    }
+
+    private StockAlert open(Long productId) {
+        return stockAlertService.getAlerts().stream().filter(alert -> alert.productId().equals(productId)).findFirst().orElse(null);
+    }
+
+    private double sent(StockAlert.Type type) {
+        Counter counter = meterRegistry.find("inventory.stock.alerts").tag("type", type.name()).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
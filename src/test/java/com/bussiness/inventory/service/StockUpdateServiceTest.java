@@ -0,0 +1,68 @@
+package com.bussiness.inventory.service;
+
+import static com.bussiness.inventory.TestProducts.createProduct;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bussiness.inventory.cache.ResourceVersions;
+import com.bussiness.inventory.dto.BulkStockUpdateResponse;
+import com.bussiness.inventory.dto.StockUpdateRequest;
+import com.bussiness.inventory.dto.StockUpdateResult.Status;
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.repository.ProductRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockUpdateServiceTest {
+
+    @Autowired
+    private StockUpdateService stockUpdateService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Test
+    void appliesDeltasAndCountsWithPerItemResults() {
+        Product first = createProduct(productService, "bulk stock first", 20.0, 10);
+        Product second = createProduct(productService, "bulk stock second", 20.0, 5);
+        Long a = first.getId();
+        Long b = second.getId();
+        long absent = b + 1_000_000;
+
+        BulkStockUpdateResponse response = stockUpdateService.update(List.of(
+                new StockUpdateRequest(b, null, 20),
+                new StockUpdateRequest(a, -3, null),
+                new StockUpdateRequest(absent, 1, null),
+                new StockUpdateRequest(a, -100, null),
+                new StockUpdateRequest(a, 2, 4),
+                new StockUpdateRequest(a, 1, null)));
+
+        assertEquals(List.of(Status.UPDATED, Status.UPDATED, Status.NOT_FOUND, Status.INSUFFICIENT_STOCK, Status.INVALID, Status.UPDATED),
+                response.getResults().stream().map(result -> result.getStatus()).toList());
+        assertEquals(7, response.getResults().get(3).getQuantity());
+        assertEquals(8, response.getResults().get(5).getQuantity());
+        assertEquals(3, response.getUpdated());
+        assertEquals(3, response.getFailed());
+        assertEquals(1, response.getTransactions());
+
+        Product updatedFirst = productRepository.findById(a).orElseThrow();
+        assertEquals(8, updatedFirst.getQuantity());
+        assertEquals(20, productRepository.findById(b).orElseThrow().getQuantity());
+        // one write per product however many items it had, and listeners saw it
+        assertEquals(first.getVersion() + 1, updatedFirst.getVersion());
+        assertEquals(resourceVersions.productTag(a, updatedFirst.getVersion()), resourceVersions.productTag(a));
+        assertEquals(20.0 / 20, productRepository.findById(b).orElseThrow().getUnitValue());
+    }
+}
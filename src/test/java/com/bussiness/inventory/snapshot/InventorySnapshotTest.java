@@ -0,0 +1,114 @@
+package com.bussiness.inventory.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bussiness.inventory.model.Product;
+import com.bussiness.inventory.service.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class InventorySnapshotTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenColumnsReadBackWithNullsAndLookups() throws Exception {
+        Path file = directory.resolve("products.snap");
+        try (InventorySnapshotWriter writer = new InventorySnapshotWriter(file)) {
+            writer.add(3, "steel hammer", 19.5, 7, 40);
+            writer.add(8, null, Double.NaN, InventorySnapshot.NO_CATEGORY, InventorySnapshot.NO_QUANTITY);
+            writer.add(11, "tournevis à cliquet", 8.25, 2, 0);
+            assertThrows(IllegalArgumentException.class, () -> writer.add(11, "again", 1, 1, 1));
+            assertEquals(InventorySnapshot.sizeOf(3, 32), writer.finish(1234L, 56L));
+        }
+        try (var spooled = Files.list(directory)) {
+            assertEquals(1, spooled.count());
+        }
+
+        InventorySnapshot snapshot = InventorySnapshot.open(file);
+        assertEquals(3, snapshot.rows());
+        assertEquals(1234L, snapshot.createdAt());
+        assertEquals(56L, snapshot.changeSequence());
+        assertEquals("steel hammer", snapshot.name(0));
+        assertEquals(40, snapshot.quantity(0));
+        assertEquals(7, snapshot.categoryId(0));
+        assertEquals("", snapshot.name(1));
+        assertTrue(Double.isNaN(snapshot.price(1)));
+        assertEquals(InventorySnapshot.NO_QUANTITY, snapshot.quantity(1));
+        assertEquals(2, snapshot.rowOf(11));
+        assertEquals("tournevis à cliquet", snapshot.name(snapshot.rowOf(11)));
+        assertEquals(8.25, snapshot.price(2));
+        assertEquals(-1, snapshot.rowOf(9));
+    }
+
+    @Test
+    void startupRemovesInterruptedExportsAndSnapshotsBeyondKeep() throws Exception {
+        for (String name : List.of("products-1000-1.snap", "products-1000-2.snap", "products-2000-1.snap",
+                "products-900-7.snap", "products-3000-1.snap.partial", "notes.txt")) {
+            Files.writeString(directory.resolve(name), name);
+        }
+
+        List<Path> kept = InventorySnapshotService.removeStaleFiles(directory, 2);
+
+        assertEquals(List.of(directory.resolve("products-1000-2.snap"), directory.resolve("products-2000-1.snap")), kept);
+        try (var left = Files.list(directory)) {
+            assertEquals(Set.of("products-1000-2.snap", "products-2000-1.snap", "notes.txt"),
+                    left.map(file -> file.getFileName().toString()).collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    void endpointExportsAndServesTheFile() throws Exception {
+        Product product = new Product();
+        product.setName("snapshot wrench");
+        product.setPrice(14.0);
+        product.setQuantity(6);
+        Long id = productService.createProduct(product).getId();
+
+        mockMvc.perform(post("/api/products/snapshot")).andExpect(status().isOk());
+        MockHttpServletResponse response = mockMvc.perform(get("/api/products/snapshot"))
+                .andExpect(status().isOk()).andReturn().getResponse();
+        Path file = directory.resolve("downloaded.snap");
+        Files.write(file, response.getContentAsByteArray());
+        assertEquals(Files.size(file), Long.parseLong(response.getHeader("Content-Length")));
+
+        InventorySnapshot snapshot = InventorySnapshot.open(file);
+        int row = snapshot.rowOf(id);
+        assertEquals("snapshot wrench", snapshot.name(row));
+        assertEquals(6, snapshot.quantity(row));
+        assertEquals(String.valueOf(snapshot.rows()), response.getHeader("X-Snapshot-Rows"));
+
+        mockMvc.perform(get("/api/products/snapshot").header("If-None-Match", response.getHeader("ETag")))
+                .andExpect(status().isNotModified());
+    }
+}